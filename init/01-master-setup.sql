@@ -17,6 +17,8 @@ GRANT REPLICATION SLAVE, REPLICATION CLIENT ON *.* TO 'repl_user'@'%';
 -- Create application user that allows connections from any host
 CREATE USER 'app_user'@'%' IDENTIFIED BY 'app_password';
 GRANT ALL PRIVILEGES ON url_shortener.* TO 'app_user'@'%';
+-- Needed by the application's replication lag monitor (SHOW REPLICA STATUS)
+GRANT REPLICATION CLIENT ON *.* TO 'app_user'@'%';
 
 FLUSH PRIVILEGES;
 SET sql_log_bin = 1;
@@ -29,9 +31,39 @@ CREATE TABLE IF NOT EXISTS url_mappings (
     short_code VARCHAR(10) NOT NULL UNIQUE,
     long_url TEXT NOT NULL,
     long_url_hash CHAR(64) NOT NULL UNIQUE,
+    click_count BIGINT NOT NULL DEFAULT 0,
+    expires_at DATETIME NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    INDEX idx_short_code (short_code),
-    INDEX idx_long_url_hash (long_url_hash),
+    KEY idx_expires_at (expires_at)
 ) ENGINE=InnoDB;
 
-FLUSH PRIVILEGES;
\ No newline at end of file
+-- Expired links moved here by the application's sweeper when app.expiry.sweeper.mode=ARCHIVE
+CREATE TABLE IF NOT EXISTS url_mappings_expired (
+    id BIGINT NOT NULL PRIMARY KEY,
+    short_code VARCHAR(10) NOT NULL,
+    long_url TEXT NOT NULL,
+    click_count BIGINT NOT NULL,
+    created_at TIMESTAMP NULL,
+    expires_at DATETIME NOT NULL,
+    purged_at DATETIME NOT NULL,
+    KEY idx_short_code (short_code)
+) ENGINE=InnoDB;
+
+-- Per-day click counts, written in batches by the application's click counter
+CREATE TABLE IF NOT EXISTS url_click_stats (
+    short_code VARCHAR(10) NOT NULL,
+    click_date DATE NOT NULL,
+    clicks BIGINT NOT NULL,
+    PRIMARY KEY (short_code, click_date),
+    -- Covers the warm-up's most-clicked-since query: a range of days, grouped by code
+    KEY idx_click_date (click_date, short_code, clicks)
+) ENGINE=InnoDB;
+
+FLUSH PRIVILEGES;
+
+-- ID blocks leased by the application's short code generator
+CREATE TABLE IF NOT EXISTS short_code_sequence (
+    name VARCHAR(32) NOT NULL PRIMARY KEY,
+    next_value BIGINT NOT NULL
+) ENGINE=InnoDB;
+INSERT IGNORE INTO short_code_sequence (name, next_value) VALUES ('short_code', 0);
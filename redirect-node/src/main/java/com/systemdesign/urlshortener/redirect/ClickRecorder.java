@@ -0,0 +1,173 @@
+package com.systemdesign.urlshortener.redirect;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Write-behind click counting for redirects served here, into the same url_click_stats and
+ * url_mappings.click_count the main application's ClickCounter writes, so click stats and the
+ * warm-up's hottest codes keep working when nginx sends redirects to these nodes.
+ *
+ * Same scheme as ClickCounter: a LongAdder per code, a scheduled flush that swaps the map and
+ * drains the old one twice, one transaction on the primary with rows in short code order, and
+ * counts put back when a flush fails. url_click_stats must exist (init/01-master-setup.sql).
+ */
+public class ClickRecorder implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClickRecorder.class);
+
+    // Keeps the VALUES list and CASE expression of one statement to a reasonable size
+    private static final int CHUNK_SIZE = 500;
+
+    private final DatabaseClient primary;
+    private final TransactionalOperator transaction;
+    private final long maxCodes;
+    private final Duration flushTimeout;
+    private final Counter droppedClicks;
+
+    private volatile ConcurrentHashMap<String, LongAdder> current = new ConcurrentHashMap<>();
+    // Swapped out by the previous flush; touched only under flushLock
+    private ConcurrentHashMap<String, LongAdder> retired = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public ClickRecorder(ConnectionFactory primaryFactory, long maxCodes, Duration flushTimeout, MeterRegistry meterRegistry) {
+        this.primary = DatabaseClient.create(primaryFactory);
+        this.transaction = TransactionalOperator.create(new R2dbcTransactionManager(primaryFactory));
+        this.maxCodes = maxCodes;
+        this.flushTimeout = flushTimeout;
+        this.droppedClicks = Counter.builder("clicks.dropped")
+            .description("Clicks not counted because app.clicks.max-codes was reached")
+            .register(meterRegistry);
+    }
+
+    public void record(String shortCode) {
+        ConcurrentHashMap<String, LongAdder> counters = this.current;
+        LongAdder clicks = counters.get(shortCode);
+        if (clicks == null) {
+            if (counters.size() >= maxCodes) {
+                droppedClicks.increment();
+                return;
+            }
+            clicks = counters.computeIfAbsent(shortCode, code -> new LongAdder());
+        }
+        clicks.increment();
+    }
+
+    // Runs on the scheduler thread, never on the event loop, so it can wait for the write
+    @Scheduled(fixedDelayString = "${app.clicks.flush-interval:PT10S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            ConcurrentHashMap<String, LongAdder> swapped = this.current;
+            this.current = new ConcurrentHashMap<>();
+
+            Map<String, Long> clicks = new HashMap<>();
+            drain(this.retired, clicks);
+            drain(swapped, clicks);
+            this.retired = swapped;
+            if (clicks.isEmpty()) {
+                return;
+            }
+
+            try {
+                write(LocalDate.now(ZoneOffset.UTC), clicks).block(flushTimeout);
+                logger.debug("Flushed clicks for {} short codes", clicks.size());
+            } catch (RuntimeException e) {
+                logger.warn("Click flush for {} short codes failed, retrying with the next flush", clicks.size(), e);
+                clicks.forEach((shortCode, count) -> this.current.computeIfAbsent(shortCode, code -> new LongAdder()).add(count));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Mono<Void> write(LocalDate day, Map<String, Long> clicks) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(clicks.entrySet());
+        // Same lock order as every other instance's flush
+        entries.sort(Map.Entry.comparingByKey());
+        List<Mono<Long>> statements = new ArrayList<>();
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<String, Long>> chunk = entries.subList(from, Math.min(entries.size(), from + CHUNK_SIZE));
+            statements.add(upsertDaily(day, chunk));
+        }
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            statements.add(updateTotals(entries.subList(from, Math.min(entries.size(), from + CHUNK_SIZE))));
+        }
+        return Flux.concat(statements).then().as(transaction::transactional);
+    }
+
+    // INSERT INTO url_click_stats ... VALUES (?, ?, ?), ... ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks)
+    private Mono<Long> upsertDaily(LocalDate day, List<Map.Entry<String, Long>> entries) {
+        StringBuilder sql = new StringBuilder("INSERT INTO url_click_stats (short_code, click_date, clicks) VALUES ");
+        for (int i = 0; i < entries.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks)");
+        DatabaseClient.GenericExecuteSpec spec = primary.sql(sql.toString());
+        int index = 0;
+        for (Map.Entry<String, Long> entry : entries) {
+            spec = spec.bind(index++, entry.getKey()).bind(index++, day).bind(index++, entry.getValue());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    // UPDATE url_mappings SET click_count = click_count + CASE short_code WHEN ? THEN ? ... END WHERE short_code IN (...)
+    private Mono<Long> updateTotals(List<Map.Entry<String, Long>> entries) {
+        StringBuilder sql = new StringBuilder("UPDATE url_mappings SET click_count = click_count + CASE short_code");
+        for (int i = 0; i < entries.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+        }
+        sql.append(" ELSE 0 END WHERE short_code IN (");
+        for (int i = 0; i < entries.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        DatabaseClient.GenericExecuteSpec spec = primary.sql(sql.toString());
+        int index = 0;
+        for (Map.Entry<String, Long> entry : entries) {
+            spec = spec.bind(index++, entry.getKey()).bind(index++, entry.getValue());
+        }
+        for (Map.Entry<String, Long> entry : entries) {
+            spec = spec.bind(index++, entry.getKey());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    @Override
+    public void destroy() {
+        // Twice: the second pass picks up increments that raced with the first swap
+        flush();
+        flush();
+    }
+
+    private static void drain(Map<String, LongAdder> counters, Map<String, Long> into) {
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                into.merge(entry.getKey(), count, Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.systemdesign.urlshortener.redirect;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code GET /{shortCode}} with the same status and Cache-Control semantics as the main
+ * application's RedirectController (404 unknown, 410 expired), configured through the same
+ * app.redirect.* properties. Each redirect counts a click, as a resolve does there.
+ */
+@Component
+public class RedirectHandler {
+
+    private static final Set<Integer> REDIRECT_STATUSES = Set.of(301, 302, 303, 307, 308);
+
+    private final ShortCodeResolver resolver;
+    private final ClickRecorder clickRecorder;
+    private final int redirectStatus;
+    private final long cacheMaxAgeSeconds;
+    private final String cacheControl;
+
+    public RedirectHandler(
+            ShortCodeResolver resolver,
+            ClickRecorder clickRecorder,
+            @Value("${app.redirect.status:302}") int redirectStatus,
+            @Value("${app.redirect.cache-max-age:0}") long cacheMaxAgeSeconds) {
+        if (!REDIRECT_STATUSES.contains(redirectStatus)) {
+            throw new IllegalArgumentException("app.redirect.status must be one of " + REDIRECT_STATUSES + " but was " + redirectStatus);
+        }
+        this.resolver = resolver;
+        this.clickRecorder = clickRecorder;
+        this.redirectStatus = redirectStatus;
+        this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
+        this.cacheControl = cacheMaxAgeSeconds > 0 ? "public, max-age=" + cacheMaxAgeSeconds : null;
+    }
+
+    public Mono<ServerResponse> redirect(ServerRequest request) {
+        String shortCode = request.pathVariable("shortCode");
+        return resolver.resolve(shortCode).flatMap(resolution -> respond(shortCode, resolution));
+    }
+
+    private Mono<ServerResponse> respond(String shortCode, ShortCodeResolver.Resolution resolution) {
+        if (!resolution.isFound()) {
+            // As in RedirectController: a code created a moment ago must not stay a cached 404
+            return ServerResponse.notFound().header(HttpHeaders.CACHE_CONTROL, "no-store").build();
+        }
+        if (resolution.isExpired()) {
+            return ServerResponse.status(HttpStatus.GONE).build();
+        }
+        // In-memory increment only; counts reach the database with the next scheduled flush
+        clickRecorder.record(shortCode);
+        // Location is set as a raw header: stored URLs are already normalized, no URI parsing needed
+        ServerResponse.BodyBuilder response = ServerResponse.status(redirectStatus).header(HttpHeaders.LOCATION, resolution.longUrl());
+        String cacheControl = cacheControl(resolution.expiresAtMillis());
+        if (cacheControl != null) {
+            response.header(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        return response.build();
+    }
+
+    // A cached redirect must not outlive its link, or caches keep redirecting where a 410 is due:
+    // expiring links are cached at most until expires_at, and not at all once that is under a second away
+    private String cacheControl(long expiresAtMillis) {
+        if (expiresAtMillis == 0L) {
+            return cacheControl;
+        }
+        long secondsLeft = (expiresAtMillis - System.currentTimeMillis()) / 1000;
+        if (secondsLeft <= 0 || cacheMaxAgeSeconds <= 0) {
+            return "no-store";
+        }
+        return secondsLeft >= cacheMaxAgeSeconds ? cacheControl : "public, max-age=" + secondsLeft;
+    }
+}
@@ -0,0 +1,21 @@
+package com.systemdesign.urlshortener.redirect;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Redirect-only node: serves {@code GET /{shortCode}} from the shared url_mappings table on
+ * Netty with non-blocking R2DBC access. Shortening and the JSON API stay on the main
+ * application; nginx routes only the bare short code location to these nodes. Clicks are
+ * counted here and flushed to the same tables as the main application's.
+ */
+@SpringBootApplication
+@EnableScheduling
+public class RedirectNodeApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(RedirectNodeApplication.class, args);
+	}
+
+}
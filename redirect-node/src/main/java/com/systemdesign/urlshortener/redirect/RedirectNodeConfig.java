@@ -0,0 +1,89 @@
+package com.systemdesign.urlshortener.redirect;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * Two R2DBC pools mirroring the main application's read/write split: lookups go to a replica,
+ * and only replica misses are retried on the primary (a code created moments ago may not have
+ * replicated yet). Both are registered as beans so the actuator reports each pool's health.
+ */
+@Configuration
+public class RedirectNodeConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool readConnectionFactory(
+            @Value("${spring.r2dbc.read.url}") String url,
+            @Value("${spring.r2dbc.read.username}") String username,
+            @Value("${spring.r2dbc.read.password}") String password,
+            @Value("${spring.r2dbc.read.pool.max-size:20}") int maxSize,
+            @Value("${spring.r2dbc.pool.max-acquire-time:PT2S}") Duration maxAcquireTime) {
+        return pool("read-pool", url, username, password, maxSize, maxAcquireTime);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool writeConnectionFactory(
+            @Value("${spring.r2dbc.write.url}") String url,
+            @Value("${spring.r2dbc.write.username}") String username,
+            @Value("${spring.r2dbc.write.password}") String password,
+            @Value("${spring.r2dbc.write.pool.max-size:4}") int maxSize,
+            @Value("${spring.r2dbc.pool.max-acquire-time:PT2S}") Duration maxAcquireTime) {
+        return pool("write-pool", url, username, password, maxSize, maxAcquireTime);
+    }
+
+    @Bean
+    public ShortCodeResolver shortCodeResolver(
+            @Qualifier("readConnectionFactory") ConnectionPool read,
+            @Qualifier("writeConnectionFactory") ConnectionPool write,
+            @Value("${app.redirect-node.primary-fallback:true}") boolean primaryFallback,
+            @Value("${app.cache.resolve.max-entries:2000000}") long maxEntries,
+            @Value("${app.cache.resolve.ttl:PT24H}") Duration ttl,
+            @Value("${app.cache.resolve.negative-ttl:PT30S}") Duration negativeTtl,
+            MeterRegistry meterRegistry) {
+        return new ShortCodeResolver(read, primaryFallback ? write : null, maxEntries, ttl, negativeTtl, meterRegistry);
+    }
+
+    @Bean
+    public ClickRecorder clickRecorder(
+            @Qualifier("writeConnectionFactory") ConnectionPool write,
+            @Value("${app.clicks.max-codes:1000000}") long maxCodes,
+            @Value("${app.clicks.flush-timeout:PT5S}") Duration flushTimeout,
+            MeterRegistry meterRegistry) {
+        return new ClickRecorder(write, maxCodes, flushTimeout, meterRegistry);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> redirectRoutes(RedirectHandler redirectHandler) {
+        // Same short code shape the main application's RedirectController and nginx accept
+        return RouterFunctions.route(RequestPredicates.GET("/{shortCode:[A-Za-z0-9]{1,10}}"), redirectHandler::redirect);
+    }
+
+    private static ConnectionPool pool(String name, String url, String username, String password,
+            int maxSize, Duration maxAcquireTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+            .name(name)
+            .initialSize(Math.min(2, maxSize))
+            .maxSize(maxSize)
+            .maxAcquireTime(maxAcquireTime)
+            .validationQuery("SELECT 1")
+            .build());
+    }
+}
@@ -0,0 +1,120 @@
+package com.systemdesign.urlshortener.redirect;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking short code -> long URL lookup behind an async Caffeine cache.
+ *
+ * Concurrent requests for the same uncached code share one in-flight query. Unknown codes are
+ * cached as negative entries with a short TTL so scanners do not reach the database (or the
+ * primary, when the fallback is enabled) on every request. Expiring links are checked against
+ * their cached expires_at and stay cached at most the negative TTL past it, as in the main
+ * application's resolve cache.
+ */
+public class ShortCodeResolver {
+
+    public static final String CACHE_NAME = "url.resolve";
+
+    private static final String FIND_LONG_URL = "SELECT long_url, expires_at FROM url_mappings WHERE short_code = ?";
+
+    private final DatabaseClient replica;
+    private final DatabaseClient primary;
+    private final AsyncCache<String, Resolution> cache;
+
+    /**
+     * @param primaryFactory used only when the replica has no row; null disables the fallback
+     */
+    public ShortCodeResolver(ConnectionFactory replicaFactory, ConnectionFactory primaryFactory,
+            long maxEntries, Duration ttl, Duration negativeTtl, MeterRegistry meterRegistry) {
+        this.replica = DatabaseClient.create(replicaFactory);
+        this.primary = primaryFactory != null ? DatabaseClient.create(primaryFactory) : null;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(new ResolveExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, CACHE_NAME);
+    }
+
+    /**
+     * Emits the resolution of a short code; {@link Resolution#NOT_FOUND} when it does not exist.
+     */
+    public Mono<Resolution> resolve(String shortCode) {
+        return Mono.fromFuture(cache.get(shortCode, (code, executor) -> lookup(code).toFuture()));
+    }
+
+    private Mono<Resolution> lookup(String shortCode) {
+        Mono<Resolution> found = find(replica, shortCode);
+        if (primary != null) {
+            found = found.switchIfEmpty(Mono.defer(() -> find(primary, shortCode)));
+        }
+        return found.defaultIfEmpty(Resolution.NOT_FOUND);
+    }
+
+    private static Mono<Resolution> find(DatabaseClient client, String shortCode) {
+        return client.sql(FIND_LONG_URL)
+            .bind(0, shortCode)
+            .map(row -> {
+                // DATETIME written by the main application through JDBC in the JVM time zone
+                LocalDateTime expiresAt = row.get(1, LocalDateTime.class);
+                return new Resolution(row.get(0, String.class),
+                    expiresAt != null ? expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L);
+            })
+            .one();
+    }
+
+    /**
+     * A null longUrl marks an unknown code; expiresAtMillis is 0 for links that never expire.
+     */
+    public record Resolution(String longUrl, long expiresAtMillis) {
+
+        static final Resolution NOT_FOUND = new Resolution(null, 0L);
+
+        public boolean isFound() {
+            return longUrl != null;
+        }
+
+        public boolean isExpired() {
+            return expiresAtMillis != 0L && expiresAtMillis <= System.currentTimeMillis();
+        }
+    }
+
+    private record ResolveExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<String, Resolution> {
+
+        @Override
+        public long expireAfterCreate(String shortCode, Resolution resolution, long currentTime) {
+            if (!resolution.isFound()) {
+                return negativeTtlNanos;
+            }
+            if (resolution.expiresAtMillis() == 0L) {
+                return ttlNanos;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, resolution.expiresAtMillis() - System.currentTimeMillis()));
+            return Math.min(ttlNanos, untilExpiry + negativeTtlNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String shortCode, Resolution resolution, long currentTime, long currentDuration) {
+            return expireAfterCreate(shortCode, resolution, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String shortCode, Resolution resolution, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.systemdesign.urlshortener.redirect;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Mono;
+
+class RedirectHandlerTest {
+
+    private static final String LONG_URL = "https://example.com/articles/1";
+
+    private final ShortCodeResolver resolver = mock(ShortCodeResolver.class);
+    private final ClickRecorder clickRecorder = mock(ClickRecorder.class);
+
+    @Test
+    void redirectsWithTheConfiguredCacheControlAndCountsTheClick() {
+        resolveTo(new ShortCodeResolver.Resolution(LONG_URL, 0L));
+
+        client(301, 3600).get().uri("/abc123").exchange()
+            .expectStatus().isEqualTo(301)
+            .expectHeader().valueEquals(HttpHeaders.LOCATION, LONG_URL)
+            .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "public, max-age=3600");
+        verify(clickRecorder).record("abc123");
+    }
+
+    @Test
+    void capsCacheControlAtTheRemainingLifetime() {
+        resolveTo(new ShortCodeResolver.Resolution(LONG_URL, System.currentTimeMillis() + 120_500L));
+
+        client(302, 3600).get().uri("/abc123").exchange()
+            .expectStatus().isEqualTo(302)
+            .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "public, max-age=120");
+    }
+
+    @Test
+    void doesNotLetCachesKeepALinkAboutToExpire() {
+        resolveTo(new ShortCodeResolver.Resolution(LONG_URL, System.currentTimeMillis() + 500L));
+
+        client(302, 3600).get().uri("/abc123").exchange()
+            .expectStatus().isEqualTo(302)
+            .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-store");
+    }
+
+    @Test
+    void omitsCacheControlWhenCachingIsOff() {
+        resolveTo(new ShortCodeResolver.Resolution(LONG_URL, 0L));
+
+        client(302, 0).get().uri("/abc123").exchange()
+            .expectStatus().isEqualTo(302)
+            .expectHeader().doesNotExist(HttpHeaders.CACHE_CONTROL);
+    }
+
+    @Test
+    void answersUnknownCodesWithAnUncacheable404() {
+        resolveTo(ShortCodeResolver.Resolution.NOT_FOUND);
+
+        client(302, 3600).get().uri("/abc123").exchange()
+            .expectStatus().isNotFound()
+            .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-store");
+        verify(clickRecorder, never()).record(anyString());
+    }
+
+    @Test
+    void answersExpiredLinksWith410() {
+        resolveTo(new ShortCodeResolver.Resolution(LONG_URL, System.currentTimeMillis() - 1_000L));
+
+        client(302, 3600).get().uri("/abc123").exchange()
+            .expectStatus().isEqualTo(410);
+        verify(clickRecorder, never()).record(anyString());
+    }
+
+    @Test
+    void leavesPathsThatAreNoShortCodeAlone() {
+        client(302, 3600).get().uri("/not-a-code").exchange()
+            .expectStatus().isNotFound();
+        verify(resolver, never()).resolve(anyString());
+    }
+
+    private void resolveTo(ShortCodeResolver.Resolution resolution) {
+        when(resolver.resolve(anyString())).thenReturn(Mono.just(resolution));
+    }
+
+    private WebTestClient client(int redirectStatus, long cacheMaxAgeSeconds) {
+        RedirectHandler handler = new RedirectHandler(resolver, clickRecorder, redirectStatus, cacheMaxAgeSeconds);
+        return WebTestClient.bindToRouterFunction(new RedirectNodeConfig().redirectRoutes(handler)).build();
+    }
+}
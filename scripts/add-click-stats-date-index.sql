@@ -0,0 +1,14 @@
+-- scripts/add-click-stats-date-index.sql
+--
+-- Adds the (click_date, short_code, clicks) index that init/01-master-setup.sql now creates,
+-- for databases set up before it. Without it the startup warm-up's most-clicked query scans
+-- and sorts all of url_click_stats.
+--
+-- Run on the master only (the statement replicates to the slaves). InnoDB builds the index
+-- online; the click flush keeps writing meanwhile.
+--
+--   mysql -h mysql_master -u root -p url_shortener < scripts/add-click-stats-date-index.sql
+
+USE url_shortener;
+
+ALTER TABLE url_click_stats ADD KEY idx_click_date (click_date, short_code, clicks), ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,59 @@
+-- scripts/migrate-url-hash-to-binary.sql
+--
+-- Converts url_mappings.long_url_hash from 64-char hex CHAR(64) to the raw 32-byte
+-- BINARY(32) form used with app.hash.storage=BINARY. The unique index shrinks by half.
+--
+-- Run on the master only (the statements replicate to the slaves), with the application
+-- stopped or switched to read-only: rows written with a hex hash after the UPDATE would be
+-- lost by the final column swap. On large tables run the UPDATE in id ranges, or use an
+-- online schema change tool for the ALTERs.
+--
+--   mysql -h mysql_master -u root -p url_shortener < scripts/migrate-url-hash-to-binary.sql
+--
+-- Then restart every instance with app.hash.storage=BINARY.
+
+USE url_shortener;
+
+ALTER TABLE url_mappings ADD COLUMN long_url_hash_bin BINARY(32) NULL AFTER long_url_hash;
+
+UPDATE url_mappings SET long_url_hash_bin = UNHEX(long_url_hash) WHERE long_url_hash_bin IS NULL;
+
+-- Every row must have converted before anything is dropped. The mysql client stops at the
+-- first error, so a failed check leaves the table as it was plus the extra column; fix the
+-- rows it reports and run the script again (the ADD COLUMN above then fails: start at UPDATE)
+DELIMITER //
+CREATE PROCEDURE assert_url_hashes_converted()
+BEGIN
+    DECLARE unconverted BIGINT;
+    SELECT COUNT(*) INTO unconverted FROM url_mappings WHERE long_url_hash_bin IS NULL;
+    IF unconverted > 0 THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'long_url_hash_bin is NULL on some rows; nothing was dropped';
+    END IF;
+END //
+DELIMITER ;
+
+CALL assert_url_hashes_converted();
+DROP PROCEDURE assert_url_hashes_converted;
+
+-- The new unique key goes on before the hex column and its key are dropped. A duplicate
+-- stops the script here, with the hex column and its unique key still in place
+ALTER TABLE url_mappings
+    MODIFY COLUMN long_url_hash_bin BINARY(32) NOT NULL,
+    ADD UNIQUE KEY long_url_hash_bin (long_url_hash_bin);
+
+ALTER TABLE url_mappings DROP COLUMN long_url_hash;
+
+ALTER TABLE url_mappings
+    CHANGE COLUMN long_url_hash_bin long_url_hash BINARY(32) NOT NULL,
+    RENAME INDEX long_url_hash_bin TO long_url_hash;
+
+-- Rollback (application back on app.hash.storage=HEX), in the same order:
+--   ALTER TABLE url_mappings ADD COLUMN long_url_hash_hex CHAR(64) NULL AFTER long_url_hash;
+--   UPDATE url_mappings SET long_url_hash_hex = LOWER(HEX(long_url_hash));
+--   ALTER TABLE url_mappings
+--       MODIFY COLUMN long_url_hash_hex CHAR(64) NOT NULL,
+--       ADD UNIQUE KEY long_url_hash_hex (long_url_hash_hex);
+--   ALTER TABLE url_mappings DROP COLUMN long_url_hash;
+--   ALTER TABLE url_mappings
+--       CHANGE COLUMN long_url_hash_hex long_url_hash CHAR(64) NOT NULL,
+--       RENAME INDEX long_url_hash_hex TO long_url_hash;
@@ -0,0 +1,30 @@
+package com.systemdesign.urlshortener.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.systemdesign.urlshortener.UrlshortenerApplication;
+
+/**
+ * Boots the application without a web server for the service-level benchmarks. The profile
+ * comes from the benchmark.profile system property (./gradlew jmh -PjmhProfile=...) and
+ * defaults to h2, the in-process database; an empty value runs against the configured MySQL
+ * topology and its usual environment variables.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    static ConfigurableApplicationContext start(String... properties) {
+        String profile = System.getProperty("benchmark.profile", "h2");
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(UrlshortenerApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties("app.snapshot.path=", "logging.level.com.systemdesign=WARN")
+            .properties(properties);
+        if (!profile.isBlank()) {
+            builder.profiles(profile);
+        }
+        return builder.run();
+    }
+}
@@ -0,0 +1,184 @@
+package com.systemdesign.urlshortener.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import com.systemdesign.urlshortener.config.RequestLoggingFilter;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per-request cost of the logging filter around a no-op chain: the previous two
+ * System.out.printf calls against RequestLoggingFilter feeding an async appender, at the
+ * default and a 100% sample rate, on one thread and with 16 threads contending. Both write
+ * to a discarding stream, so the numbers are formatting and contention, not disk. At 100%
+ * the async queue fills and INFO lines are dropped, as they would be in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private final HttpServletRequest request = stub(HttpServletRequest.class);
+    private final HttpServletResponse response = stub(HttpServletResponse.class);
+    private final LegacyRequestLoggingFilter legacyFilter = new LegacyRequestLoggingFilter();
+
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @State(Scope.Benchmark)
+    public static class AccessLog {
+
+        @Param({"0.01", "1"})
+        public double sampleRate;
+
+        RequestLoggingFilter filter;
+        private AsyncAppender async;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // Same shape as logback-spring.xml, minus the file
+            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+            context.reset();
+
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setContext(context);
+            encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %level %msg%n");
+            encoder.start();
+
+            OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+            sink.setContext(context);
+            sink.setEncoder(encoder);
+            sink.setImmediateFlush(false);
+            sink.setOutputStream(OutputStream.nullOutputStream());
+            sink.start();
+
+            async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.addAppender(sink);
+            async.start();
+
+            ch.qos.logback.classic.Logger access = context.getLogger("access");
+            access.setLevel(ch.qos.logback.classic.Level.INFO);
+            access.setAdditive(false);
+            access.addAppender(async);
+
+            filter = new RequestLoggingFilter(sampleRate, Duration.ofSeconds(1));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            async.stop();
+        }
+    }
+
+    @Benchmark
+    public HttpServletResponse printf() throws Exception {
+        legacyFilter.doFilter(request, response, NO_OP_CHAIN);
+        return response;
+    }
+
+    @Benchmark
+    @Threads(16)
+    public HttpServletResponse printfContended() throws Exception {
+        legacyFilter.doFilter(request, response, NO_OP_CHAIN);
+        return response;
+    }
+
+    @Benchmark
+    public HttpServletResponse asyncAccessLog(AccessLog accessLog) throws Exception {
+        accessLog.filter.doFilter(request, response, NO_OP_CHAIN);
+        return response;
+    }
+
+    @Benchmark
+    @Threads(16)
+    public HttpServletResponse asyncAccessLogContended(AccessLog accessLog) throws Exception {
+        accessLog.filter.doFilter(request, response, NO_OP_CHAIN);
+        return response;
+    }
+
+    // Only what the filters call: no correlation ID header, so one is generated each time
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) ->
+            switch (method.getName()) {
+                case "getMethod" -> "GET";
+                case "getRequestURI" -> "/aB3dE9x";
+                case "getRemoteAddr" -> "203.0.113.7";
+                case "getStatus" -> 302;
+                default -> null;
+            });
+    }
+
+    /**
+     * The filter as it was before the access log: a start and an end line per request,
+     * each a String.format plus a System.out write that locks the shared stream.
+     */
+    static final class LegacyRequestLoggingFilter {
+
+        void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            HttpServletRequest httpRequest = (HttpServletRequest) request;
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            String correlationId = "app_" + UUID.randomUUID().toString().substring(0, 8);
+            try (MDC.MDCCloseable closeable = MDC.putCloseable("correlationId", correlationId)) {
+                httpResponse.setHeader("X-Correlation-ID", correlationId);
+                long startTime = System.currentTimeMillis();
+                System.out.printf("REQUEST_START [%s] %s %s %s%n", correlationId, httpRequest.getMethod(),
+                    httpRequest.getRequestURI(), String.format("(IP: %s)", httpRequest.getRemoteAddr()));
+                chain.doFilter(request, response);
+                long duration = System.currentTimeMillis() - startTime;
+                System.out.printf("REQUEST_END [%s] %s %s - Status: %d - Duration: %dms%n", correlationId,
+                    httpRequest.getMethod(), httpRequest.getRequestURI(), httpResponse.getStatus(), duration);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.systemdesign.urlshortener.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.systemdesign.urlshortener.cache.UrlResolveCache;
+import com.systemdesign.urlshortener.service.UrlChangeService;
+
+/**
+ * The full service path behind POST /api/shorten and GET /api/{shortCode}: normalization,
+ * hashing, dedup, code generation and insert on one side; resolve cache, Bloom filter and the
+ * replica query on the other. Runs on the in-process H2 database by default (see
+ * {@link BenchmarkApplication}), so absolute numbers leave out network round-trips but
+ * regressions in the Java side of the path show up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ShortenResolveBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UrlChangeService urlChangeService;
+    private UrlResolveCache resolveCache;
+    private String[] urls;
+    private String[] shortCodes;
+    private long fresh;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        urlChangeService = context.getBean(UrlChangeService.class);
+        resolveCache = context.getBean(UrlResolveCache.class);
+        urls = UrlCorpus.load();
+        shortCodes = new String[urls.length];
+        for (int i = 0; i < urls.length; i++) {
+            shortCodes[i] = urlChangeService.getShortCode(urls[i], null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // A URL never shortened before: one INSERT and a fresh code
+    @Benchmark
+    public String shortenNew() {
+        String url = urls[nextIndex()];
+        // Parameter goes before any fragment, which some strategies strip
+        int fragment = url.indexOf('#');
+        String base = fragment < 0 ? url : url.substring(0, fragment);
+        return urlChangeService.getShortCode(base + (base.indexOf('?') < 0 ? "?" : "&") + "bench=" + fresh++, null);
+    }
+
+    // Dedup hit on the unique hash key
+    @Benchmark
+    public String shortenExisting() {
+        return urlChangeService.getShortCode(urls[nextIndex()], null);
+    }
+
+    @Benchmark
+    public String resolveCached() {
+        return urlChangeService.getOriginalUrl(shortCodes[nextIndex()]);
+    }
+
+    // Cache miss on every call: Bloom filter check and projection query
+    @Benchmark
+    public String resolveUncached() {
+        String shortCode = shortCodes[nextIndex()];
+        resolveCache.invalidate(shortCode);
+        return urlChangeService.getOriginalUrl(shortCode);
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = next + 1 == urls.length ? 0 : next + 1;
+        return index;
+    }
+}
@@ -0,0 +1,67 @@
+package com.systemdesign.urlshortener.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark input URLs: the bundled url-corpus.txt, or the file named by the benchmark.corpus
+ * system property (./gradlew jmh -PjmhCorpus=...). Lines are plain URLs or JSON lines carrying
+ * a "url" field, so captured shorten traffic can be used as is; '#' lines and blanks are skipped.
+ */
+final class UrlCorpus {
+
+    private static final String RESOURCE = "/url-corpus.txt";
+    private static final Pattern URL_FIELD = Pattern.compile("\"url\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private UrlCorpus() {}
+
+    static String[] load() {
+        String path = System.getProperty("benchmark.corpus");
+        try (BufferedReader reader = path != null && !path.isBlank()
+                ? Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8)
+                : resource()) {
+            List<String> urls = new ArrayList<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String url = parse(line.strip());
+                if (url != null) {
+                    urls.add(url);
+                }
+            }
+            if (urls.isEmpty()) {
+                throw new IllegalStateException("No URLs in benchmark corpus " + (path != null ? path : RESOURCE));
+            }
+            return urls.toArray(String[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static BufferedReader resource() {
+        InputStream in = UrlCorpus.class.getResourceAsStream(RESOURCE);
+        if (in == null) {
+            throw new IllegalStateException(RESOURCE + " is not on the classpath");
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static String parse(String line) {
+        if (line.isEmpty() || line.startsWith("#")) {
+            return null;
+        }
+        if (!line.startsWith("{")) {
+            return line;
+        }
+        Matcher matcher = URL_FIELD.matcher(line);
+        return matcher.find() ? matcher.group(1).replace("\\/", "/").replace("\\\"", "\"").replace("\\\\", "\\") : null;
+    }
+}
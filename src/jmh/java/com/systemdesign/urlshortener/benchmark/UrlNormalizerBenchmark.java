@@ -0,0 +1,73 @@
+package com.systemdesign.urlshortener.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.systemdesign.urlshortener.utils.NormalizationStrategy;
+import com.systemdesign.urlshortener.utils.UrlNormalizer;
+
+/**
+ * Char-array fast path vs the java.net.URI reference implementation, per strategy, over the
+ * URL corpus (see {@link UrlCorpus}). URLs a strategy rejects are left out for that strategy,
+ * so both variants measure successful normalizations. Run with {@code -prof gc} to compare
+ * allocation per normalization as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlNormalizerBenchmark {
+
+    @Param({"MINIMAL", "BASIC", "AGGRESSIVE", "SEO_OPTIMIZED", "SECURITY_FOCUSED", "COMPLETE_REMOVAL"})
+    public NormalizationStrategy strategy;
+
+    private UrlNormalizer normalizer;
+    private String[] urls;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        normalizer = new UrlNormalizer(strategy);
+        List<String> accepted = new ArrayList<>();
+        for (String url : UrlCorpus.load()) {
+            try {
+                normalizer.normalizeWithUri(url);
+                accepted.add(url);
+            } catch (IllegalArgumentException e) {
+                // Rejected by this strategy, e.g. a scheme it does not allow
+            }
+        }
+        urls = accepted.toArray(String[]::new);
+    }
+
+    @Benchmark
+    public String fastPath() {
+        return normalizer.normalize(nextUrl());
+    }
+
+    @Benchmark
+    public String uriReference() {
+        return normalizer.normalizeWithUri(nextUrl());
+    }
+
+    private String nextUrl() {
+        String url = urls[next];
+        next = next + 1 == urls.length ? 0 : next + 1;
+        return url;
+    }
+}
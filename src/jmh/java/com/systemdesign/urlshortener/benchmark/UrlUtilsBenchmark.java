@@ -0,0 +1,51 @@
+package com.systemdesign.urlshortener.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.systemdesign.urlshortener.utils.UrlUtils;
+
+/**
+ * UrlUtils on the shorten path: SHA-256 of corpus URLs (per-thread digest, so one thread says
+ * it all), and random short codes with 32 threads sharing the SecureRandom, as request threads do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlUtilsBenchmark {
+
+    private String[] urls;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        urls = UrlCorpus.load();
+    }
+
+    @Benchmark
+    public String hashUrl() {
+        String url = urls[next];
+        next = next + 1 == urls.length ? 0 : next + 1;
+        return UrlUtils.hashUrl(url);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String generateShortCode() {
+        return UrlUtils.generateShortCode();
+    }
+}
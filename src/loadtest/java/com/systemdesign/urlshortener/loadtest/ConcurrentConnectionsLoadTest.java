@@ -0,0 +1,149 @@
+package com.systemdesign.urlshortener.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Closed-loop load test that keeps a fixed number of connections busy against a running
+ * instance: every connection is a virtual thread that sends a request, waits for the
+ * response and immediately sends the next one. It is meant for comparing the platform-thread
+ * and virtual-thread request executors at high connection counts:
+ *
+ * <pre>
+ *   VIRTUAL_THREADS_ENABLED=false  (start the app)  ./gradlew loadTest -Pconnections=10000 -Plabel=platform
+ *   VIRTUAL_THREADS_ENABLED=true   (restart)        ./gradlew loadTest -Pconnections=10000 -Plabel=virtual
+ * </pre>
+ *
+ * The mix is GET /{shortCode} redirects over a seeded set of codes plus POST /api/shorten
+ * with fresh URLs. Latencies are recorded in HdrHistograms after the warm-up; each run appends
+ * one line to build/loadtest/results.csv so runs can be compared side by side. The client
+ * needs an open-file limit above the connection count (ulimit -n).
+ *
+ * Closed-loop tests under-report tail latency once the server saturates (a slow response
+ * also delays the next request); the numbers are for before/after comparison at equal load.
+ */
+public class ConcurrentConnectionsLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTestSupport.parseArgs(args);
+        String baseUrl = options.getOrDefault("baseUrl", "http://localhost:8081");
+        int connections = Integer.parseInt(options.getOrDefault("connections", "10000"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        Duration rampUp = Duration.ofSeconds(Long.parseLong(options.getOrDefault("rampUp", "10")));
+        double resolveRatio = Double.parseDouble(options.getOrDefault("resolveRatio", "0.9"));
+        int seedUrls = Integer.parseInt(options.getOrDefault("seedUrls", "1000"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "8"));
+        String label = options.getOrDefault("label", "run");
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        // A few independent clients so one selector thread does not become the bottleneck
+        List<HttpClient> httpClients = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            httpClients.add(HttpClient.newBuilder()
+                .executor(executor)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build());
+        }
+
+        System.out.printf("Seeding %d short codes against %s%n", seedUrls, baseUrl);
+        List<String> shortCodes = LoadTestSupport.seed(httpClients.get(0), baseUrl,
+            "https://seed.example.com/" + System.currentTimeMillis() + "/", seedUrls);
+
+        Recorder resolveLatency = new Recorder(3);
+        Recorder shortenLatency = new Recorder(3);
+        AtomicLong errors = new AtomicLong();
+        AtomicLong requestCounter = new AtomicLong();
+
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + rampUp.toNanos() + warmup.toNanos();
+        long endNanos = measureFromNanos + duration.toNanos();
+        CountDownLatch finished = new CountDownLatch(connections);
+
+        System.out.printf("Opening %d connections over %ds, warm-up %ds, measuring %ds [%s]%n",
+            connections, rampUp.toSeconds(), warmup.toSeconds(), duration.toSeconds(), label);
+        for (int i = 0; i < connections; i++) {
+            HttpClient client = httpClients.get(i % clients);
+            long startAt = startNanos + rampUp.toNanos() * i / connections;
+            executor.submit(() -> {
+                try {
+                    LoadTestSupport.sleepUntil(startAt);
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < endNanos) {
+                        boolean resolve = random.nextDouble() < resolveRatio;
+                        HttpRequest request = resolve
+                            ? LoadTestSupport.resolveRequest(baseUrl, shortCodes.get(random.nextInt(shortCodes.size())))
+                            : LoadTestSupport.shortenRequest(baseUrl, "https://loadtest.example.com/" + requestCounter.incrementAndGet());
+                        long sent = System.nanoTime();
+                        boolean ok;
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            ok = status < 400;
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        long received = System.nanoTime();
+                        if (sent >= measureFromNanos && received <= endNanos) {
+                            if (!ok) {
+                                errors.incrementAndGet();
+                            }
+                            (resolve ? resolveLatency : shortenLatency).recordValue((received - sent) / 1_000);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        finished.await();
+        executor.shutdownNow();
+
+        Histogram resolve = resolveLatency.getIntervalHistogram();
+        Histogram shorten = shortenLatency.getIntervalHistogram();
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%n[%s] %d connections, %ds measured, %d errors%n", label, connections, duration.toSeconds(), errors.get());
+        System.out.println(LoadTestSupport.TABLE_HEADER);
+        LoadTestSupport.print("resolve", resolve, seconds);
+        LoadTestSupport.print("shorten", shorten, seconds);
+
+        Histogram total = resolve.copy();
+        total.add(shorten);
+        LoadTestSupport.print("total", total, seconds);
+        appendCsv(label, connections, total, seconds, errors.get());
+    }
+
+    private static void appendCsv(String label, int connections, Histogram total, double seconds, long errors) throws IOException {
+        Path results = Path.of("build", "loadtest", "results.csv");
+        Files.createDirectories(results.getParent());
+        if (Files.notExists(results)) {
+            Files.writeString(results, "label,connections,throughput,p50_ms,p99_ms,p999_ms,max_ms,errors\n");
+        }
+        Files.writeString(results, String.format("%s,%d,%.0f,%.2f,%.2f,%.2f,%.2f,%d%n",
+            label, connections, total.getTotalCount() / seconds,
+            total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(99) / 1000.0,
+            total.getValueAtPercentile(99.9) / 1000.0, total.getMaxValue() / 1000.0, errors),
+            StandardOpenOption.APPEND);
+        System.out.println("Appended to " + results.toAbsolutePath());
+    }
+}
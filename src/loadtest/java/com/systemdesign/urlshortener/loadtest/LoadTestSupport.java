@@ -0,0 +1,109 @@
+package com.systemdesign.urlshortener.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Helpers shared by the load tests: argument parsing, request building, seeding short codes
+ * and printing HdrHistogram percentiles. Latencies are recorded in microseconds.
+ */
+final class LoadTestSupport {
+
+    private static final Pattern SHORT_CODE = Pattern.compile("\"shortCode\"\\s*:\\s*\"([A-Za-z0-9]+)\"");
+
+    // Largest batch POST /api/shorten/batch accepts with the default app.batch.max-size
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    static final String TABLE_HEADER = "operation        req/s      p50 ms    p90 ms    p99 ms  p99.9 ms    max ms";
+
+    private LoadTestSupport() {}
+
+    static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    static HttpRequest shortenRequest(String baseUrl, String url) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/shorten"))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"url\":\"" + url + "\"}"))
+            .build();
+    }
+
+    static HttpRequest resolveRequest(String baseUrl, String shortCode) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/" + shortCode))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+    }
+
+    /**
+     * Creates count short codes for distinct URLs under urlPrefix, through the batch endpoint.
+     */
+    static List<String> seed(HttpClient client, String baseUrl, String urlPrefix, int count) throws InterruptedException {
+        List<String> shortCodes = new ArrayList<>(count);
+        for (int from = 0; from < count; from += SEED_BATCH_SIZE) {
+            StringBuilder body = new StringBuilder("{\"urls\":[");
+            for (int i = from; i < Math.min(count, from + SEED_BATCH_SIZE); i++) {
+                body.append(i == from ? "\"" : ",\"").append(urlPrefix).append(i).append('"');
+            }
+            body.append("]}");
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/shorten/batch"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                Matcher matcher = SHORT_CODE.matcher(response.body());
+                while (matcher.find()) {
+                    shortCodes.add(matcher.group(1));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not seed short codes against " + baseUrl, e);
+            }
+        }
+        if (shortCodes.isEmpty()) {
+            throw new IllegalStateException("No short codes could be created against " + baseUrl);
+        }
+        return shortCodes;
+    }
+
+    static void print(String operation, Histogram histogram, double seconds) {
+        System.out.printf("%-10s %11.0f %11.2f %9.2f %9.2f %9.2f %9.2f%n",
+            operation,
+            histogram.getTotalCount() / seconds,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(90) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0);
+    }
+
+    static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            Thread.sleep(Duration.ofNanos(remaining));
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.systemdesign.urlshortener.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Open-loop load generator: requests are sent on a fixed arrival schedule whether or not
+ * earlier ones have completed, the way independent users arrive. Latency is measured from
+ * the scheduled send time, so queueing inside the client or the server shows up in the tail
+ * instead of silently lowering the request rate (no coordinated omission).
+ *
+ * Traffic is either synthesised or replayed:
+ * <ul>
+ *   <li>synthetic: --rate requests per second with Poisson (default) or uniform arrivals, a
+ *   --resolveRatio share of GET /{shortCode} over --codes seeded codes whose popularity follows
+ *   a Zipf distribution with exponent --zipf, the rest POST /api/shorten with fresh URLs;</li>
+ *   <li>replay: --replay=traffic.jsonl, one request per line as
+ *   {@code {"method":"GET","path":"/aZ3kQ9x","offsetMs":12}} or
+ *   {@code {"method":"POST","path":"/api/shorten","url":"https://..."}}. With offsetMs on every
+ *   line the recorded timing is kept (scaled by --speed), otherwise lines are sent at --rate.
+ *   Captured short codes are mapped onto the seeded ones unless --remapCodes=false.</li>
+ * </ul>
+ *
+ * Against a single instance on the in-process H2 database:
+ * <pre>
+ *   ./gradlew bootRun --args='--spring.profiles.active=h2'
+ *   ./gradlew openLoopLoadTest -Prate=2000 -PresolveRatio=0.95 -Pzipf=1.1 -Plabel=h2-2k
+ * </pre>
+ * or against the compose topology through nginx with -PbaseUrl=http://localhost. Stepping
+ * -Prate up until p99 or the dropped count breaks the budget gives the sustainable rate.
+ *
+ * Each run prints throughput and p50/p90/p99/p99.9/max per operation, appends a line to
+ * build/loadtest/open-loop.csv and writes full percentile distributions to
+ * build/loadtest/&lt;label&gt;-&lt;operation&gt;.hgrm (plottable with HdrHistogram's plotter).
+ */
+public class OpenLoopLoadTest {
+
+    private static final Pattern METHOD = Pattern.compile("\"method\"\\s*:\\s*\"([A-Za-z]+)\"");
+    private static final Pattern PATH = Pattern.compile("\"path\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern URL = Pattern.compile("\"url\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern OFFSET = Pattern.compile("\"offsetMs\"\\s*:\\s*(\\d+)");
+
+    private record Operation(boolean resolve, String target, long offsetNanos) {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTestSupport.parseArgs(args);
+        String baseUrl = options.getOrDefault("baseUrl", "http://localhost:8081");
+        double rate = Double.parseDouble(options.getOrDefault("rate", "1000"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        boolean poisson = !"uniform".equals(options.getOrDefault("arrival", "poisson"));
+        double resolveRatio = Double.parseDouble(options.getOrDefault("resolveRatio", "0.9"));
+        double zipf = Double.parseDouble(options.getOrDefault("zipf", "1.0"));
+        int codes = Integer.parseInt(options.getOrDefault("codes", "10000"));
+        String replay = options.get("replay");
+        double speed = Double.parseDouble(options.getOrDefault("speed", "1.0"));
+        boolean remapCodes = Boolean.parseBoolean(options.getOrDefault("remapCodes", "true"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("maxInFlight", "10000"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "8"));
+        String label = options.getOrDefault("label", "run");
+        if (rate <= 0 || speed <= 0) {
+            throw new IllegalArgumentException("rate and speed must be positive");
+        }
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<HttpClient> httpClients = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            httpClients.add(HttpClient.newBuilder()
+                .executor(executor)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build());
+        }
+
+        long runId = System.currentTimeMillis();
+        System.out.printf("Seeding %d short codes against %s%n", codes, baseUrl);
+        List<String> shortCodes = LoadTestSupport.seed(httpClients.get(0), baseUrl,
+            "https://seed.example.com/" + runId + "/", codes);
+
+        List<Operation> replayed = replay != null ? readReplay(Path.of(replay), shortCodes, remapCodes) : null;
+        boolean recordedTiming = replayed != null && replayed.stream().allMatch(operation -> operation.offsetNanos() >= 0);
+        ZipfSampler popularity = new ZipfSampler(shortCodes.size(), zipf);
+
+        Recorder resolveLatency = new Recorder(3);
+        Recorder shortenLatency = new Recorder(3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicLong dropped = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong freshUrls = new AtomicLong();
+        ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + warmup.toNanos();
+        long endNanos = measureFromNanos + duration.toNanos();
+
+        if (replayed != null) {
+            System.out.printf("Replaying %d requests from %s %s, warm-up %ds, measuring %ds [%s]%n", replayed.size(), replay,
+                recordedTiming ? "at " + speed + "x recorded timing" : "at " + rate + " req/s", warmup.toSeconds(),
+                duration.toSeconds(), label);
+        } else {
+            System.out.printf("Offering %.0f req/s (%s), %.0f%% resolves, zipf %.2f over %d codes (top 1%% get %.0f%%), "
+                    + "warm-up %ds, measuring %ds [%s]%n",
+                rate, poisson ? "poisson" : "uniform", resolveRatio * 100, zipf, shortCodes.size(),
+                popularity.headShare(Math.max(1, shortCodes.size() / 100)) * 100, warmup.toSeconds(), duration.toSeconds(), label);
+        }
+
+        // The schedule is fixed up front by the arrival process; the dispatcher never waits for responses
+        SplittableRandom random = new SplittableRandom(runId);
+        long scheduled = 0;
+        long intendedNanos = startNanos;
+        long replayPeriodNanos = recordedTiming
+            ? (long) ((replayed.get(replayed.size() - 1).offsetNanos() + 1_000_000) / speed)
+            : 0;
+        while (true) {
+            Operation operation;
+            if (replayed != null) {
+                operation = replayed.get((int) (scheduled % replayed.size()));
+                if (recordedTiming) {
+                    intendedNanos = startNanos + scheduled / replayed.size() * replayPeriodNanos
+                        + (long) (operation.offsetNanos() / speed);
+                }
+            } else {
+                operation = random.nextDouble() < resolveRatio
+                    ? new Operation(true, shortCodes.get(popularity.next(random)), -1)
+                    : new Operation(false, "https://loadtest.example.com/" + runId + "/" + freshUrls.incrementAndGet(), -1);
+            }
+            if (intendedNanos >= endNanos) {
+                break;
+            }
+            LoadTestSupport.sleepUntil(intendedNanos);
+
+            long intended = intendedNanos;
+            boolean measured = intended >= measureFromNanos;
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                // The client cannot keep the schedule; counted instead of silently sending less
+                inFlight.decrementAndGet();
+                if (measured) {
+                    dropped.incrementAndGet();
+                }
+            } else {
+                HttpClient client = httpClients.get((int) (scheduled % clients));
+                HttpRequest request = operation.resolve()
+                    ? LoadTestSupport.resolveRequest(baseUrl, operation.target())
+                    : LoadTestSupport.shortenRequest(baseUrl, operation.target());
+                executor.submit(() -> {
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                    if (measured) {
+                        long latencyMicros = (System.nanoTime() - intended) / 1_000;
+                        (operation.resolve() ? resolveLatency : shortenLatency).recordValue(latencyMicros);
+                        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                        if (status < 0 || status >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+
+            scheduled++;
+            if (!recordedTiming) {
+                double gapNanos = poisson ? -Math.log(1 - random.nextDouble()) * 1e9 / rate : 1e9 / rate;
+                intendedNanos += (long) gapNanos;
+            }
+        }
+
+        // The HTTP clients run on the same executor, so it stays open until the last response is in
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            System.out.printf("%d requests still in flight after 60s, not counted%n", inFlight.get());
+        }
+        executor.shutdownNow();
+
+        Histogram resolve = resolveLatency.getIntervalHistogram();
+        Histogram shorten = shortenLatency.getIntervalHistogram();
+        Histogram total = resolve.copy();
+        total.add(shorten);
+        double seconds = duration.toNanos() / 1e9;
+
+        System.out.printf("%n[%s] %ds measured, %d errors, %d dropped (more than %d in flight), statuses %s%n",
+            label, duration.toSeconds(), errors.get(), dropped.get(), maxInFlight, statusCounts(statuses));
+        System.out.println(LoadTestSupport.TABLE_HEADER);
+        LoadTestSupport.print("resolve", resolve, seconds);
+        LoadTestSupport.print("shorten", shorten, seconds);
+        LoadTestSupport.print("total", total, seconds);
+
+        Path directory = Path.of("build", "loadtest");
+        Files.createDirectories(directory);
+        writeDistribution(directory.resolve(label + "-resolve.hgrm"), resolve);
+        writeDistribution(directory.resolve(label + "-shorten.hgrm"), shorten);
+        appendCsv(directory.resolve("open-loop.csv"), label, replayed != null ? "replay" : "synthetic",
+            rate, resolveRatio, zipf, total, seconds, errors.get(), dropped.get());
+    }
+
+    private static List<Operation> readReplay(Path file, List<String> shortCodes, boolean remapCodes) throws IOException {
+        List<Operation> operations = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            Matcher method = METHOD.matcher(line);
+            Matcher path = PATH.matcher(line);
+            if (!method.find() || !path.find()) {
+                continue;
+            }
+            Matcher offset = OFFSET.matcher(line);
+            long offsetNanos = offset.find() ? TimeUnit.MILLISECONDS.toNanos(Long.parseLong(offset.group(1))) : -1;
+            if ("GET".equalsIgnoreCase(method.group(1))) {
+                String shortCode = path.group(1).substring(path.group(1).lastIndexOf('/') + 1);
+                if (remapCodes) {
+                    // The same captured code always lands on the same seeded code, so popularity is kept
+                    shortCode = shortCodes.get(Math.floorMod(shortCode.hashCode(), shortCodes.size()));
+                }
+                operations.add(new Operation(true, shortCode, offsetNanos));
+            } else if ("POST".equalsIgnoreCase(method.group(1)) && path.group(1).startsWith("/api/shorten")) {
+                Matcher url = URL.matcher(line);
+                if (url.find()) {
+                    operations.add(new Operation(false, url.group(1), offsetNanos));
+                }
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("No replayable GET or POST /api/shorten requests in " + file);
+        }
+        return operations;
+    }
+
+    private static Map<Integer, Long> statusCounts(Map<Integer, LongAdder> statuses) {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            // Recorded in microseconds, written in milliseconds
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static void appendCsv(Path results, String label, String mode, double rate, double resolveRatio, double zipf,
+            Histogram total, double seconds, long errors, long dropped) throws IOException {
+        if (Files.notExists(results)) {
+            Files.writeString(results,
+                "label,mode,offered_rate,resolve_ratio,zipf,throughput,p50_ms,p99_ms,p999_ms,max_ms,errors,dropped\n");
+        }
+        Files.writeString(results, String.format("%s,%s,%.0f,%.2f,%.2f,%.0f,%.2f,%.2f,%.2f,%.2f,%d,%d%n",
+            label, mode, rate, resolveRatio, zipf, total.getTotalCount() / seconds,
+            total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(99) / 1000.0,
+            total.getValueAtPercentile(99.9) / 1000.0, total.getMaxValue() / 1000.0, errors, dropped),
+            StandardOpenOption.APPEND);
+        System.out.println("Appended to " + results.toAbsolutePath());
+    }
+}
@@ -0,0 +1,129 @@
+package com.systemdesign.urlshortener.analytics;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.systemdesign.urlshortener.repository.ClickCountRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Write-behind click counting. Resolves increment a per-code LongAdder in memory; a scheduled
+ * flush drains the counters and writes them to the master in one batched transaction.
+ *
+ * The hot path is a map read and a LongAdder increment: no global lock, no I/O. Only the first
+ * click of a code in a flush interval inserts into the map. Each flush swaps in a fresh map and
+ * drains the swapped-out one twice, immediately and again on the next flush, so an increment
+ * that raced with the swap is still counted. Failed flushes put their counts back.
+ *
+ * Memory is bounded by app.clicks.max-codes distinct codes per interval (roughly 150 bytes
+ * each); clicks on further new codes are dropped and counted in clicks.dropped.
+ */
+@Component
+public class ClickCounter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClickCounter.class);
+
+    private final ClickCountRepository clickCountRepository;
+    private final long maxCodes;
+    private final Counter droppedClicks;
+
+    private volatile ConcurrentHashMap<String, LongAdder> current = new ConcurrentHashMap<>();
+
+    // Swapped out by the previous flush; read by pendingClicks, otherwise touched only under flushLock
+    private volatile ConcurrentHashMap<String, LongAdder> retired = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public ClickCounter(
+            ClickCountRepository clickCountRepository,
+            @Value("${app.clicks.max-codes:1000000}") long maxCodes,
+            MeterRegistry meterRegistry) {
+        this.clickCountRepository = clickCountRepository;
+        this.maxCodes = maxCodes;
+        this.droppedClicks = Counter.builder("clicks.dropped")
+            .description("Clicks not counted because app.clicks.max-codes was reached")
+            .register(meterRegistry);
+        Gauge.builder("clicks.pending.codes", this, counter -> counter.current.size())
+            .description("Distinct short codes with clicks waiting for the next flush")
+            .register(meterRegistry);
+    }
+
+    public void record(String shortCode) {
+        ConcurrentHashMap<String, LongAdder> counters = this.current;
+        LongAdder clicks = counters.get(shortCode);
+        if (clicks == null) {
+            if (counters.size() >= maxCodes) {
+                droppedClicks.increment();
+                return;
+            }
+            clicks = counters.computeIfAbsent(shortCode, code -> new LongAdder());
+        }
+        clicks.increment();
+    }
+
+    // Clicks recorded by this instance that are not in the database yet
+    public long pendingClicks(String shortCode) {
+        LongAdder current = this.current.get(shortCode);
+        LongAdder retired = this.retired.get(shortCode);
+        return (current != null ? current.sum() : 0) + (retired != null ? retired.sum() : 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.clicks.flush-interval:PT10S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            ConcurrentHashMap<String, LongAdder> swapped = this.current;
+            this.current = new ConcurrentHashMap<>();
+
+            Map<String, Long> clicks = new HashMap<>();
+            drain(this.retired, clicks);
+            drain(swapped, clicks);
+            this.retired = swapped;
+            if (clicks.isEmpty()) {
+                return;
+            }
+
+            try {
+                clickCountRepository.addClicks(LocalDate.now(ZoneOffset.UTC), clicks);
+                logger.debug("Flushed clicks for {} short codes", clicks.size());
+            } catch (RuntimeException e) {
+                // Not only DataAccessException: a master outage surfaces as CannotCreateTransactionException
+                // and a failed commit as TransactionSystemException, and the counts are already drained
+                logger.warn("Click flush for {} short codes failed, retrying with the next flush", clicks.size(), e);
+                clicks.forEach((shortCode, count) -> this.current.computeIfAbsent(shortCode, code -> new LongAdder()).add(count));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Twice: the second pass picks up increments that raced with the first swap
+        flush();
+        flush();
+    }
+
+    private static void drain(Map<String, LongAdder> counters, Map<String, Long> into) {
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                into.merge(entry.getKey(), count, Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.systemdesign.urlshortener.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over short strings.
+ *
+ * Bits live in an AtomicLongArray and are set with CAS, so concurrent adds never lose a bit
+ * and lookups take no lock. The k probe positions come from one 64-bit hash of the chars
+ * (FNV-1a plus a murmur finalizer) by double hashing; no String or byte[] is allocated.
+ * Entries cannot be removed: a deleted key stays a false positive until the filter is rebuilt.
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final AtomicLong setBits = new AtomicLong();
+
+    private BloomFilter(long bitSize, int hashFunctions) {
+        long wordCount = (bitSize + 63) >>> 6;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter of " + bitSize + " bits is too large");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitSize = wordCount << 6;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Sizes the filter for the given number of entries at the given false positive rate, using
+     * the optimal m = -n ln p / (ln 2)^2 bits and k = m/n ln 2 hash functions.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive but was " + expectedInsertions);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1) but was " + falsePositiveRate);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int hashFunctions = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(Math.max(64, bits), hashFunctions);
+    }
+
+    public void add(CharSequence key) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1 + 0x9e3779b97f4a7c15L) | 1L;
+        long combined = hash1;
+        for (int i = 0; i < hashFunctions; i++, combined += hash2) {
+            long bit = Long.remainderUnsigned(combined, bitSize);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = words.get(index);
+            while ((word & mask) == 0) {
+                long witness = words.compareAndExchange(index, word, word | mask);
+                if (witness == word) {
+                    setBits.incrementAndGet();
+                    break;
+                }
+                word = witness;
+            }
+        }
+    }
+
+    /**
+     * False means the key was never added; true means it probably was.
+     */
+    public boolean mightContain(CharSequence key) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1 + 0x9e3779b97f4a7c15L) | 1L;
+        long combined = hash1;
+        for (int i = 0; i < hashFunctions; i++, combined += hash2) {
+            long bit = Long.remainderUnsigned(combined, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    // Share of bits set; grows past 0.5 once more entries were added than the filter was sized for
+    public double fillRatio() {
+        return (double) setBits.get() / bitSize;
+    }
+
+    // False positive rate at the current fill ratio
+    public double expectedFalsePositiveRate() {
+        return Math.pow(fillRatio(), hashFunctions);
+    }
+
+    private static long hash(CharSequence key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "BloomFilter[bits=" + bitSize + ", hashFunctions=" + hashFunctions
+            + ", fillRatio=" + String.format("%.4f", fillRatio()) + "]";
+    }
+}
@@ -0,0 +1,36 @@
+package com.systemdesign.urlshortener.cache;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Short codes created by this instance within the read-your-writes window. Lookups for
+ * these codes go straight to the master instead of a replica that may not have them yet.
+ */
+@Component
+public class RecentWriteTracker {
+
+    private final Cache<String, Boolean> recentCodes;
+
+    public RecentWriteTracker(
+            @Value("${app.routing.read-your-writes-window:PT5S}") Duration window,
+            @Value("${app.routing.read-your-writes-max-codes:100000}") long maxCodes) {
+        this.recentCodes = Caffeine.newBuilder()
+            .expireAfterWrite(window)
+            .maximumSize(maxCodes)
+            .build();
+    }
+
+    public void recordWrite(String shortCode) {
+        recentCodes.put(shortCode, Boolean.TRUE);
+    }
+
+    public boolean isRecent(String shortCode) {
+        return recentCodes.getIfPresent(shortCode) != null;
+    }
+}
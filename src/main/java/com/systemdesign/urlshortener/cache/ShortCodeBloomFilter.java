@@ -0,0 +1,185 @@
+package com.systemdesign.urlshortener.cache;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bloom filter of every short code in url_mappings, so lookups of codes that were never
+ * created (scanners, typos) are answered 404 without a database query.
+ *
+ * The filter is filled by one streaming scan of a replica, then kept current by codes this
+ * instance creates and by a frequent catch-up scan of the newest rows on the master, which
+ * brings in codes created by other instances. Auto-increment ids can commit out of order, so
+ * each catch-up re-reads app.bloom.catch-up-overlap ids below the highest one seen. Until the
+ * first scan completes, and while it is disabled, the filter lets every code through.
+ *
+ * The filter is exact for codes this instance created and for everything up to the last
+ * catch-up. A code created on another instance since then is answered 404 here for up to
+ * app.bloom.catch-up-interval (plus the catch-up query itself). Those answers are never cached,
+ * neither in the resolve cache nor by HTTP caches (no-store), so the code resolves as soon as
+ * the next catch-up has added it.
+ *
+ * Purged codes stay in the filter and cost a query as before; the fill ratio gauge shows when
+ * the table has outgrown app.bloom.expected-insertions and the filter needs resizing.
+ */
+@Component
+public class ShortCodeBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShortCodeBloomFilter.class);
+
+    private static final String LOAD_SQL = "SELECT id, short_code FROM url_mappings";
+    private static final String CATCH_UP_SQL = "SELECT id, short_code FROM url_mappings WHERE id > ? ORDER BY id LIMIT ?";
+    private static final int CATCH_UP_PAGE_SIZE = 10_000;
+
+    private final boolean enabled;
+    private final BloomFilter filter;
+    private final long catchUpOverlap;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter rejected;
+    private final Counter falsePositives;
+
+    // Written only under refreshLock; not synchronized, which would pin a virtual thread during JDBC I/O
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile boolean loaded;
+    private long maxSeenId;
+
+    public ShortCodeBloomFilter(
+            @Value("${app.bloom.enabled:true}") boolean enabled,
+            @Value("${app.bloom.expected-insertions:10000000}") long expectedInsertions,
+            @Value("${app.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${app.bloom.catch-up-overlap:1000}") long catchUpOverlap,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.filter = enabled ? BloomFilter.create(expectedInsertions, falsePositiveRate) : null;
+        this.catchUpOverlap = catchUpOverlap;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rejected = Counter.builder("shortcode.filter.rejected")
+            .description("Lookups answered as unknown by the short code Bloom filter without a query")
+            .register(meterRegistry);
+        this.falsePositives = Counter.builder("shortcode.filter.false.positives")
+            .description("Lookups the short code Bloom filter let through that found no mapping")
+            .register(meterRegistry);
+        if (enabled) {
+            Gauge.builder("shortcode.filter.fill.ratio", filter, BloomFilter::fillRatio)
+                .description("Share of bits set in the short code Bloom filter")
+                .register(meterRegistry);
+            Gauge.builder("shortcode.filter.false.positive.rate", filter, BloomFilter::expectedFalsePositiveRate)
+                .description("Expected false positive rate of the short code Bloom filter at its current fill")
+                .register(meterRegistry);
+            logger.info("Short code filter sized at {} bits ({} MB) with {} hash functions",
+                filter.bitSize(), filter.bitSize() >>> 23, filter.hashFunctions());
+        }
+    }
+
+    /**
+     * False only when the code certainly does not exist.
+     */
+    public boolean mightExist(String shortCode) {
+        if (!loaded || filter.mightContain(shortCode)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void add(String shortCode) {
+        if (enabled) {
+            filter.add(shortCode);
+        }
+    }
+
+    // Called when a code the filter let through turned out not to exist
+    public void recordFalsePositive() {
+        if (loaded) {
+            falsePositives.increment();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Runs the initial scan until it succeeds, then the catch-up scan on every call.
+     */
+    @Scheduled(fixedDelayString = "${app.bloom.catch-up-interval:PT2S}")
+    public void refresh() {
+        if (!enabled || !refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (!loaded) {
+                load();
+            } else {
+                catchUp();
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Short code filter refresh failed, retrying on the next run: {}", e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void load() {
+        long started = System.nanoTime();
+        long[] seen = { 0L, 0L };
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOAD_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams rows one by one instead of buffering the whole result set;
+            // other drivers (H2 in the h2 profile) reject the negative fetch size
+            if ("MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                statement.setFetchSize(Integer.MIN_VALUE);
+            }
+            return statement;
+        }, rs -> {
+            filter.add(rs.getString(2));
+            seen[0]++;
+            seen[1] = Math.max(seen[1], rs.getLong(1));
+        }));
+        maxSeenId = seen[1];
+        // The replica may lag; the first catch-up reads whatever the master has beyond it
+        catchUp();
+        loaded = true;
+        logger.info("Short code filter loaded {} codes in {} ms, {}", seen[0], (System.nanoTime() - started) / 1_000_000, filter);
+    }
+
+    // Plain JdbcTemplate calls outside a transaction run on the master
+    private void catchUp() {
+        long from = Math.max(0L, maxSeenId - catchUpOverlap);
+        int rows;
+        do {
+            long[] last = { from };
+            rows = jdbcTemplate.query(CATCH_UP_SQL, rs -> {
+                int count = 0;
+                while (rs.next()) {
+                    filter.add(rs.getString(2));
+                    last[0] = rs.getLong(1);
+                    count++;
+                }
+                return count;
+            }, from, CATCH_UP_PAGE_SIZE);
+            from = last[0];
+            maxSeenId = Math.max(maxSeenId, from);
+        } while (rows == CATCH_UP_PAGE_SIZE);
+    }
+}
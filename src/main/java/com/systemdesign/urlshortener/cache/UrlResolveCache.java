@@ -0,0 +1,130 @@
+package com.systemdesign.urlshortener.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-process short code -> long URL cache sitting in front of the database.
+ *
+ * Mappings are immutable once written, so entries only leave the cache through
+ * size/weight eviction (W-TinyLFU admission) or their TTL. Unknown short codes are
+ * cached as negative entries with a much shorter TTL. Entries of expiring links live at
+ * most the negative TTL past their expiry, so a link whose expiry was extended, or that
+ * the sweeper purged, is re-read from the database soon after.
+ */
+@Component
+public class UrlResolveCache {
+
+    public static final String CACHE_NAME = "url.resolve";
+
+    // Rough per-entry overhead of the cache node, key/value objects and array headers
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Cache<String, ResolvedUrl> cache;
+
+    public UrlResolveCache(
+            @Value("${app.cache.resolve.max-entries:2000000}") long maxEntries,
+            @Value("${app.cache.resolve.max-bytes:0}") long maxBytes,
+            @Value("${app.cache.resolve.ttl:PT24H}") Duration ttl,
+            @Value("${app.cache.resolve.negative-ttl:PT30S}") Duration negativeTtl,
+            MeterRegistry meterRegistry) {
+
+        Caffeine<String, ResolvedUrl> builder = Caffeine.newBuilder()
+            .expireAfter(new ResolveExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+            .recordStats();
+
+        // Caffeine bounds either by entry count or by weight, never both
+        if (maxBytes > 0) {
+            builder.maximumWeight(maxBytes).weigher(UrlResolveCache::weigh);
+        } else {
+            builder.maximumSize(maxEntries);
+        }
+
+        this.cache = builder.build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached resolution for a short code, {@link ResolvedUrl#NOT_FOUND} for a
+     * cached miss, or null when the cache knows nothing about the code.
+     */
+    public ResolvedUrl get(String shortCode) {
+        return cache.getIfPresent(shortCode);
+    }
+
+    // Cached resolutions (including negative entries) for whichever of the codes are present
+    public Map<String, ResolvedUrl> getAllPresent(Collection<String> shortCodes) {
+        return cache.getAllPresent(shortCodes);
+    }
+
+    public void put(String shortCode, ResolvedUrl resolved) {
+        cache.put(shortCode, resolved);
+    }
+
+    public void putMissing(String shortCode) {
+        cache.put(shortCode, ResolvedUrl.NOT_FOUND);
+    }
+
+    public void invalidate(String shortCode) {
+        cache.invalidate(shortCode);
+    }
+
+    public void invalidateAll(Collection<String> shortCodes) {
+        cache.invalidateAll(shortCodes);
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private static int weigh(String shortCode, ResolvedUrl resolved) {
+        int urlLength = resolved.longUrl() != null ? resolved.longUrl().length() : 0;
+        return ENTRY_OVERHEAD_BYTES + shortCode.length() + urlLength;
+    }
+
+    private static final class ResolveExpiry implements Expiry<String, ResolvedUrl> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        ResolveExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String shortCode, ResolvedUrl resolved, long currentTime) {
+            if (!resolved.isFound()) {
+                return negativeTtlNanos;
+            }
+            if (resolved.expiresAtMillis() == 0L) {
+                return ttlNanos;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, resolved.expiresAtMillis() - System.currentTimeMillis()));
+            return Math.min(ttlNanos, untilExpiry + negativeTtlNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String shortCode, ResolvedUrl resolved, long currentTime, long currentDuration) {
+            return expireAfterCreate(shortCode, resolved, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String shortCode, ResolvedUrl resolved, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
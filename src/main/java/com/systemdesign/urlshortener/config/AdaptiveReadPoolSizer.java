@@ -0,0 +1,186 @@
+package com.systemdesign.urlshortener.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Resizes the read pool between app.datasource.read.adaptive.min-size and max-size from what the
+ * pool itself measures over each interval (hikaricp.connections.acquire and .usage):
+ *
+ * - Usage time, how long a connection is held, above latency-tolerance times its lowest recent
+ *   value: the replicas are saturated and more connections would only queue inside MySQL. Shrink.
+ * - Otherwise, requests waiting longer than acquire-wait-target for a connection on average, or
+ *   still waiting at the end of the interval: the pool is the bottleneck. Grow.
+ * - Half the pool or less in use for several intervals in a row: give connections back. Shrink by one.
+ *
+ * Each instance sizes its own pool, so max-size times the number of instances must stay within
+ * the replicas' max_connections. Hikari closes connections above a lowered maximum as they go
+ * idle (idle-timeout), not immediately.
+ */
+@Component
+@ConditionalOnProperty(name = "app.datasource.read.adaptive.enabled", havingValue = "true")
+public class AdaptiveReadPoolSizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveReadPoolSizer.class);
+
+    // Lets the latency baseline rise again after the workload changes, by 5% per interval
+    private static final double BASELINE_DRIFT = 1.05;
+    private static final int QUIET_INTERVALS_BEFORE_SHRINK = 3;
+
+    private final HikariDataSource readPool;
+    private final MeterRegistry meterRegistry;
+    private final int minSize;
+    private final int maxSize;
+    private final int step;
+    private final long acquireWaitTargetNanos;
+    private final double latencyTolerance;
+    private final long minSamples;
+    private final int configuredMinimumIdle;
+    private final Counter grown;
+    private final Counter shrunk;
+
+    private long lastAcquireCount;
+    private double lastAcquireNanos;
+    private long lastUsageCount;
+    private double lastUsageNanos;
+    private double baselineUsageNanos;
+    private int quietIntervals;
+
+    public AdaptiveReadPoolSizer(
+            @Qualifier("readDataSource") DataSource readDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.read.adaptive.min-size:10}") int minSize,
+            @Value("${app.datasource.read.adaptive.max-size:60}") int maxSize,
+            @Value("${app.datasource.read.adaptive.step:2}") int step,
+            @Value("${app.datasource.read.adaptive.acquire-wait-target:PT0.005S}") Duration acquireWaitTarget,
+            @Value("${app.datasource.read.adaptive.latency-tolerance:2.0}") double latencyTolerance,
+            @Value("${app.datasource.read.adaptive.min-samples:100}") long minSamples) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("app.datasource.read.adaptive needs 1 <= min-size <= max-size but got " + minSize + " and " + maxSize);
+        }
+        if (latencyTolerance <= 1) {
+            throw new IllegalArgumentException("app.datasource.read.adaptive.latency-tolerance must be above 1 but was " + latencyTolerance);
+        }
+        try {
+            this.readPool = readDataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Adaptive sizing needs a Hikari read pool", e);
+        }
+        this.meterRegistry = meterRegistry;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.step = Math.max(1, step);
+        this.acquireWaitTargetNanos = acquireWaitTarget.toNanos();
+        this.latencyTolerance = latencyTolerance;
+        this.minSamples = minSamples;
+        this.configuredMinimumIdle = readPool.getMinimumIdle();
+        this.grown = resizeCounter(meterRegistry, "up");
+        this.shrunk = resizeCounter(meterRegistry, "down");
+
+        // Start inside the bounds; the configured maximum-pool-size is the initial size
+        HikariConfigMXBean config = readPool.getHikariConfigMXBean();
+        resize(config, Math.clamp(config.getMaximumPoolSize(), minSize, maxSize), "initial bounds");
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.read.adaptive.interval:PT10S}")
+    public void adjust() {
+        HikariPoolMXBean pool = readPool.getHikariPoolMXBean();
+        Timer acquire = poolTimer("hikaricp.connections.acquire");
+        Timer usage = poolTimer("hikaricp.connections.usage");
+        if (pool == null || acquire == null || usage == null) {
+            // The pool starts with the first connection request
+            return;
+        }
+
+        long acquireCount = acquire.count();
+        double acquireNanos = acquire.totalTime(TimeUnit.NANOSECONDS);
+        long usageCount = usage.count();
+        double usageNanos = usage.totalTime(TimeUnit.NANOSECONDS);
+        long acquired = acquireCount - lastAcquireCount;
+        long released = usageCount - lastUsageCount;
+        double acquireWait = acquired > 0 ? (acquireNanos - lastAcquireNanos) / acquired : 0;
+        double held = released > 0 ? (usageNanos - lastUsageNanos) / released : 0;
+        lastAcquireCount = acquireCount;
+        lastAcquireNanos = acquireNanos;
+        lastUsageCount = usageCount;
+        lastUsageNanos = usageNanos;
+
+        HikariConfigMXBean config = readPool.getHikariConfigMXBean();
+        int size = config.getMaximumPoolSize();
+        if (acquired < minSamples || released < minSamples) {
+            // Too little traffic to judge latency; only check whether the pool can give connections back
+            shrinkIfQuiet(config, pool, size);
+            return;
+        }
+
+        baselineUsageNanos = baselineUsageNanos == 0 ? held : Math.min(held, baselineUsageNanos * BASELINE_DRIFT);
+        if (held > baselineUsageNanos * latencyTolerance) {
+            quietIntervals = 0;
+            if (size > minSize) {
+                shrunk.increment();
+                resize(config, Math.max(minSize, size - step), String.format("connections held %.1f ms against a %.1f ms baseline",
+                    held / 1e6, baselineUsageNanos / 1e6));
+            }
+        } else if (acquireWait > acquireWaitTargetNanos || pool.getThreadsAwaitingConnection() > 0) {
+            quietIntervals = 0;
+            if (size < maxSize) {
+                grown.increment();
+                resize(config, Math.min(maxSize, size + step), String.format("acquire wait %.1f ms, %d waiting",
+                    acquireWait / 1e6, pool.getThreadsAwaitingConnection()));
+            }
+        } else {
+            shrinkIfQuiet(config, pool, size);
+        }
+    }
+
+    private void shrinkIfQuiet(HikariConfigMXBean config, HikariPoolMXBean pool, int size) {
+        if (pool.getActiveConnections() * 2 > size || pool.getThreadsAwaitingConnection() > 0) {
+            quietIntervals = 0;
+            return;
+        }
+        if (++quietIntervals >= QUIET_INTERVALS_BEFORE_SHRINK && size > minSize) {
+            quietIntervals = 0;
+            shrunk.increment();
+            resize(config, size - 1, pool.getActiveConnections() + " of " + size + " connections in use");
+        }
+    }
+
+    private void resize(HikariConfigMXBean config, int size, String reason) {
+        if (size == config.getMaximumPoolSize()) {
+            return;
+        }
+        logger.info("Resizing {} from {} to {} connections: {}", config.getPoolName(), config.getMaximumPoolSize(), size, reason);
+        config.setMinimumIdle(Math.min(configuredMinimumIdle, size));
+        config.setMaximumPoolSize(size);
+    }
+
+    private Timer poolTimer(String name) {
+        return meterRegistry.find(name).tag("pool", readPool.getPoolName()).timer();
+    }
+
+    private static Counter resizeCounter(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("datasource.read.pool.resizes")
+            .description("Changes of the read pool's maximum size by adaptive sizing")
+            .tag("direction", direction)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.systemdesign.urlshortener.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The h2 profile's replacement for {@link ReadWriteDataSourceConfig}: both pools point at one
+ * in-process H2 database in MySQL mode, behind the same routing datasource, so benchmarks and
+ * local load tests exercise the real read/write routing without a master and replicas.
+ * There is no replication, hence no lag monitor.
+ */
+@Configuration
+@Profile("h2")
+public class EmbeddedDataSourceConfig {
+
+    @Value("${app.datasource.embedded-url}")
+    private String url;
+
+    @Autowired
+    private Environment environment;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(MeterRegistry meterRegistry) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(meterRegistry, null);
+
+        Map<Object, Object> dataSourceMap = new HashMap<>();
+        dataSourceMap.put(ReadWriteRoutingDataSource.WRITE, writeDataSource(meterRegistry));
+        dataSourceMap.put(ReadWriteRoutingDataSource.READ, readDataSource(meterRegistry));
+
+        routingDataSource.setTargetDataSources(dataSourceMap);
+        routingDataSource.setDefaultTargetDataSource(writeDataSource(meterRegistry));
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public DataSource writeDataSource(MeterRegistry meterRegistry) {
+        return pool("write-pool", "spring.datasource.write.hikari", meterRegistry);
+    }
+
+    @Bean
+    public DataSource readDataSource(MeterRegistry meterRegistry) {
+        return pool("read-pool", "spring.datasource.read.hikari", meterRegistry);
+    }
+
+    // Same pool settings as the MySQL pools, so benchmarks run with the production sizing
+    private HikariDataSource pool(String poolName, String poolPrefix, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username("sa")
+            .password("")
+            .build();
+        return HikariPools.configure(dataSource, poolName, poolPrefix, environment, meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.systemdesign.urlshortener.config;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Applies the Hikari settings from application.properties to a pool built in code: first the
+ * shared spring.datasource.hikari.* defaults, then the pool's own prefix (for example
+ * spring.datasource.read.hikari.*) on top. Any Hikari property works under either prefix.
+ *
+ * The pool also reports to Micrometer as hikaricp.connections.* tagged with its pool name:
+ * active, idle, pending, acquire and usage time, timeouts.
+ */
+final class HikariPools {
+
+    static final String SHARED_PREFIX = "spring.datasource.hikari";
+
+    private HikariPools() {}
+
+    static HikariDataSource configure(HikariDataSource dataSource, String poolName, String poolPrefix,
+            Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        binder.bind(SHARED_PREFIX, Bindable.ofInstance(dataSource));
+        binder.bind(poolPrefix, Bindable.ofInstance(dataSource));
+        // Named in code: the shared pool-name would otherwise give both pools the same metrics tag
+        dataSource.setPoolName(poolName);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
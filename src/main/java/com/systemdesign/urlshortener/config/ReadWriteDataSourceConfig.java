@@ -1,20 +1,31 @@
 package com.systemdesign.urlshortener.config;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.annotation.PropertySource;
-import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
+@Profile("!h2")
 @PropertySource("classpath:application.properties")
 public class ReadWriteDataSourceConfig {
 
@@ -33,46 +44,80 @@ public class ReadWriteDataSourceConfig {
     @Value("${db.slave2.port}")
     private String slave2Port;
 
+    @Value("${app.replication.lag-monitor.max-lag:PT2S}")
+    private Duration maxReplicationLag;
+
+    // Pool sizes bound concurrent DB work. With virtual threads enabled there is no request thread
+    // pool in front of them any more, so they must not grow with load; instead connection-timeout
+    // makes requests fail fast rather than queue without bound behind a slow database.
+    // Sizes and timeouts come from spring.datasource[.write|.read].hikari.*, see HikariPools
+    @Autowired
+    private Environment environment;
+
+    private static final String REPLICA_CONNECTION_GROUP = "url_shortener_replicas";
+
     @Bean
     @Primary
-    public DataSource dataSource() {
-        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+    public DataSource dataSource(MeterRegistry meterRegistry, ObjectProvider<ReplicationLagMonitor> lagMonitor) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(meterRegistry, lagMonitor.getIfAvailable());
         
         Map<Object, Object> dataSourceMap = new HashMap<>();
-        dataSourceMap.put("WRITE", writeDataSource());
-        dataSourceMap.put("READ", readDataSource());
+        dataSourceMap.put(ReadWriteRoutingDataSource.WRITE, writeDataSource(meterRegistry));
+        dataSourceMap.put(ReadWriteRoutingDataSource.READ, readDataSource(meterRegistry));
         
         routingDataSource.setTargetDataSources(dataSourceMap);
-        routingDataSource.setDefaultTargetDataSource(writeDataSource());
-        return routingDataSource;
+        routingDataSource.setDefaultTargetDataSource(writeDataSource(meterRegistry));
+        routingDataSource.afterPropertiesSet();
+
+        // The transaction manager grabs a connection before it publishes the read-only flag,
+        // so defer the physical connection (and the routing decision) to the first statement
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replication.lag-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public ReplicationLagMonitor replicationLagMonitor(MeterRegistry meterRegistry) {
+        return new ReplicationLagMonitor(
+            REPLICA_CONNECTION_GROUP,
+            masterUrl() + "?connectTimeout=1000&socketTimeout=2000",
+            replicaHosts(),
+            "jdbc:mysql://%s/url_shortener?connectTimeout=1000&socketTimeout=2000",
+            mysqlUser,
+            mysqlPassword,
+            maxReplicationLag,
+            meterRegistry);
     }
     
     @Bean
-    public DataSource writeDataSource() {        
-        return DataSourceBuilder.create()
-            .url("jdbc:mysql://mysql_master:"+dbMasterPort+"/url_shortener")
+    public DataSource writeDataSource(MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            // Lets JDBC batches (batch shorten) go out as multi-row statements
+            .url(masterUrl() + "?rewriteBatchedStatements=true")
             .username(mysqlUser)
             .password(mysqlPassword)
             .build();
+        return HikariPools.configure(dataSource, "write-pool", "spring.datasource.write.hikari", environment, meterRegistry);
     }
     
     @Bean
-    public DataSource readDataSource() {
+    public DataSource readDataSource(MeterRegistry meterRegistry) {
         // Round-robin between slaves
-        return DataSourceBuilder.create()
-            .url("jdbc:mysql:loadbalance://mysql_slave1:"+slave1Port+",mysql_slave2:"+slave2Port+"/url_shortener?loadBalanceAutoCommitStatementThreshold=5&loadBalanceHostRemovalGracePeriod=15000&loadBalanceBlacklistTimeout=5000")
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url("jdbc:mysql:loadbalance://"+String.join(",", replicaHosts())+"/url_shortener?loadBalanceAutoCommitStatementThreshold=5&loadBalanceHostRemovalGracePeriod=15000&loadBalanceBlacklistTimeout=5000&loadBalanceConnectionGroup="+REPLICA_CONNECTION_GROUP)
             .username(mysqlUser)
             .password(mysqlPassword)
             .build();
+        return HikariPools.configure(dataSource, "read-pool", "spring.datasource.read.hikari", environment, meterRegistry);
     }
-}
 
-// Custom routing datasource
-class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
-    @Override
-    protected Object determineCurrentLookupKey() {
-        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() 
-            ? "READ" 
-            : "WRITE";
+    private String masterUrl() {
+        return "jdbc:mysql://mysql_master:"+dbMasterPort+"/url_shortener";
     }
-}
\ No newline at end of file
+
+    // host:port pairs, in the form the load-balancing connection group identifies them
+    private List<String> replicaHosts() {
+        return List.of("mysql_slave1:"+slave1Port, "mysql_slave2:"+slave2Port);
+    }
+}
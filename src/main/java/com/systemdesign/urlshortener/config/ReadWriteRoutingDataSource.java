@@ -0,0 +1,51 @@
+package com.systemdesign.urlshortener.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Custom routing datasource
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String READ = "READ";
+    static final String WRITE = "WRITE";
+
+    // One increment per physical connection checkout, tagged with the pool it was routed to
+    private final Counter readRoutes;
+    private final Counter writeRoutes;
+    // Read-only work sent to the master because of read-your-writes or replica lag
+    private final Counter masterFallbacks;
+
+    private final ReplicationLagMonitor lagMonitor;
+
+    ReadWriteRoutingDataSource(MeterRegistry meterRegistry, ReplicationLagMonitor lagMonitor) {
+        this.readRoutes = routeCounter(meterRegistry, READ);
+        this.writeRoutes = routeCounter(meterRegistry, WRITE);
+        this.masterFallbacks = Counter.builder("datasource.routing.master.fallbacks")
+            .description("Read-only connections routed to the master instead of a replica")
+            .register(meterRegistry);
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (!RoutingContext.isMasterPreferred() && (lagMonitor == null || lagMonitor.hasHealthyReplica())) {
+                readRoutes.increment();
+                return READ;
+            }
+            masterFallbacks.increment();
+        }
+        writeRoutes.increment();
+        return WRITE;
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("datasource.routing.connections")
+            .description("Connections handed out by the read/write routing datasource")
+            .tag("route", route)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,86 @@
+package com.systemdesign.urlshortener.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Session-level read-your-writes. A client that just created a short code gets a
+ * short-lived cookie; while it is valid, that client's lookups are served by the master
+ * on whichever instance nginx sends them to, so a lagging replica cannot answer 404.
+ *
+ * The cookie is client input: a deadline further ahead than one window from now was not
+ * issued here and is ignored, so a client cannot pin its requests to the master.
+ */
+@Component
+public class ReadYourWritesFilter implements Filter {
+
+    static final String COOKIE_NAME = "ryw_until";
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(@Value("${app.routing.read-your-writes-window:PT5S}") Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        if (windowMillis <= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if ("POST".equals(httpRequest.getMethod()) && httpRequest.getRequestURI().startsWith("/api/shorten")) {
+            // Added before the body is written, while headers can still be set
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + windowMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, windowMillis / 1000));
+            httpResponse.addCookie(cookie);
+        }
+
+        if (readsOwnWrite(httpRequest, now)) {
+            RoutingContext.preferMaster();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoutingContext.clear();
+        }
+    }
+
+    private boolean readsOwnWrite(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    return until > now && until <= now + windowMillis;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
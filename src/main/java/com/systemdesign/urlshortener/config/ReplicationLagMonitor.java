@@ -0,0 +1,265 @@
+package com.systemdesign.urlshortener.config;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.mysql.cj.jdbc.ConnectionGroupManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Periodically measures how far each replica is behind the master - the same data
+ * monitor-replication.sh prints by hand - and ejects lagging replicas from the
+ * Connector/J load-balancing group that backs the read pool.
+ *
+ * Two signals are combined per replica:
+ * - SHOW REPLICA STATUS (IO/SQL threads running, Seconds_Behind_Source)
+ * - GTID heartbeat: the master's gtid_executed captured one lag threshold ago must
+ *   already be a subset of the replica's gtid_executed
+ *
+ * When no replica is healthy, {@link #hasHealthyReplica()} turns false and the routing
+ * datasource sends reads to the master until a replica catches up again.
+ */
+public class ReplicationLagMonitor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationLagMonitor.class);
+
+    private final String connectionGroup;
+    private final String masterUrl;
+    private final List<String> replicaHosts;
+    private final String replicaUrlTemplate;
+    private final String username;
+    private final String password;
+    private final long maxLagMillis;
+
+    // Serialises probes and shutdown over the probe connections and GTID history; readers never
+    // take it. A lock rather than synchronized: the probe does JDBC I/O while holding it, which
+    // would pin the carrier when scheduling runs on virtual threads
+    private final ReentrantLock probeLock = new ReentrantLock();
+    private final Map<String, Connection> probeConnections = new LinkedHashMap<>();
+    private final Deque<GtidSnapshot> masterSnapshots = new ArrayDeque<>();
+    private Connection masterConnection;
+
+    // Immutable snapshot replaced at the end of each probe; read lock-free by health, gauges and the sweeper
+    private volatile Map<String, ReplicaStatus> statuses;
+
+    private volatile boolean healthyReplica = true;
+
+    public ReplicationLagMonitor(String connectionGroup, String masterUrl, List<String> replicaHosts,
+            String replicaUrlTemplate, String username, String password, Duration maxLag, MeterRegistry meterRegistry) {
+        this.connectionGroup = connectionGroup;
+        this.masterUrl = masterUrl;
+        this.replicaHosts = List.copyOf(replicaHosts);
+        this.replicaUrlTemplate = replicaUrlTemplate;
+        this.username = username;
+        this.password = password;
+        this.maxLagMillis = maxLag.toMillis();
+
+        // Replicas start as healthy so reads are not pinned to the master before the first probe
+        Map<String, ReplicaStatus> initial = new LinkedHashMap<>();
+        for (String host : this.replicaHosts) {
+            initial.put(host, new ReplicaStatus(host, true, 0L, true, false, null));
+        }
+        this.statuses = Collections.unmodifiableMap(initial);
+
+        for (String host : this.replicaHosts) {
+            Gauge.builder("replication.lag.seconds", this, monitor -> monitor.lagSecondsOf(host))
+                .description("Seconds_Behind_Source reported by the replica, -1 when replication is stopped")
+                .tag("replica", host)
+                .register(meterRegistry);
+        }
+        Gauge.builder("replication.replicas.healthy", this, monitor -> monitor.healthyReplicaCount())
+            .description("Replicas currently eligible for read traffic")
+            .register(meterRegistry);
+    }
+
+    public boolean hasHealthyReplica() {
+        return healthyReplica;
+    }
+
+    public Collection<ReplicaStatus> getReplicaStatuses() {
+        return statuses.values();
+    }
+
+    @Scheduled(fixedDelayString = "${app.replication.lag-monitor.interval:PT1S}")
+    public void probe() {
+        probeLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            GtidSnapshot reference = recordMasterSnapshot(now);
+
+            Map<String, ReplicaStatus> next = new LinkedHashMap<>();
+            int healthy = 0;
+            for (String host : replicaHosts) {
+                ReplicaStatus status = probeReplica(host, reference);
+                next.put(host, status);
+                if (status.healthy()) {
+                    healthy++;
+                }
+            }
+            updateConnectionGroup(next, healthy);
+            statuses = Collections.unmodifiableMap(next);
+            healthyReplica = healthy > 0;
+        } finally {
+            probeLock.unlock();
+        }
+    }
+
+    private GtidSnapshot recordMasterSnapshot(long now) {
+        try {
+            masterConnection = ensureOpen(masterConnection, masterUrl);
+            try (Statement statement = masterConnection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT @@GLOBAL.gtid_executed")) {
+                if (rs.next()) {
+                    masterSnapshots.addLast(new GtidSnapshot(now, rs.getString(1)));
+                }
+            }
+        } catch (SQLException e) {
+            logger.warn("Replication lag monitor could not read master GTID set: {}", e.getMessage());
+            masterConnection = closeQuietly(masterConnection);
+        }
+
+        // The newest snapshot that is at least one threshold old is what every replica must have applied
+        GtidSnapshot reference = null;
+        while (!masterSnapshots.isEmpty() && masterSnapshots.peekFirst().capturedAt() <= now - maxLagMillis) {
+            reference = masterSnapshots.pollFirst();
+        }
+        if (reference != null) {
+            masterSnapshots.addFirst(reference);
+        }
+        return reference;
+    }
+
+    private ReplicaStatus probeReplica(String host, GtidSnapshot reference) {
+        try {
+            Connection connection = ensureOpen(probeConnections.get(host), replicaUrlTemplate.formatted(host));
+            probeConnections.put(host, connection);
+
+            boolean ioRunning = false;
+            boolean sqlRunning = false;
+            Long lagSeconds = null;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+                if (rs.next()) {
+                    ioRunning = "Yes".equalsIgnoreCase(rs.getString("Replica_IO_Running"));
+                    sqlRunning = "Yes".equalsIgnoreCase(rs.getString("Replica_SQL_Running"));
+                    long lag = rs.getLong("Seconds_Behind_Source");
+                    lagSeconds = rs.wasNull() ? null : lag;
+                }
+            }
+
+            boolean gtidCaughtUp = true;
+            if (reference != null) {
+                try (PreparedStatement statement = connection.prepareStatement("SELECT GTID_SUBSET(?, @@GLOBAL.gtid_executed)")) {
+                    statement.setString(1, reference.gtidExecuted());
+                    try (ResultSet rs = statement.executeQuery()) {
+                        gtidCaughtUp = rs.next() && rs.getInt(1) == 1;
+                    }
+                }
+            }
+
+            boolean healthy = ioRunning && sqlRunning && lagSeconds != null
+                && lagSeconds * 1000 <= maxLagMillis && gtidCaughtUp;
+            return new ReplicaStatus(host, healthy, lagSeconds, gtidCaughtUp, isEjected(host), null);
+        } catch (SQLException e) {
+            logger.warn("Replication lag monitor could not probe replica {}: {}", host, e.getMessage());
+            probeConnections.put(host, closeQuietly(probeConnections.get(host)));
+            return new ReplicaStatus(host, false, null, false, isEjected(host), e.getMessage());
+        }
+    }
+
+    private void updateConnectionGroup(Map<String, ReplicaStatus> next, int healthy) {
+        for (String host : replicaHosts) {
+            ReplicaStatus status = next.get(host);
+            try {
+                if (!status.healthy() && !status.ejected() && healthy > 0) {
+                    // Only eject while another replica can take the load; otherwise reads go to the master.
+                    // removeExisting: pooled connections are long-lived load-balanced proxies, which would
+                    // otherwise keep balancing onto this host until they reach max-lifetime
+                    ConnectionGroupManager.removeHost(connectionGroup, host, true);
+                    next.put(host, status.withEjected(true));
+                    logger.warn("Ejected replica {} from read pool (lag: {}s, GTID caught up: {})",
+                        host, status.lagSeconds(), status.gtidCaughtUp());
+                } else if (status.healthy() && status.ejected()) {
+                    ConnectionGroupManager.addHost(connectionGroup, host, true);
+                    next.put(host, status.withEjected(false));
+                    logger.info("Replica {} caught up and rejoined the read pool", host);
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not update load-balancing group for replica {}: {}", host, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isEjected(String host) {
+        ReplicaStatus previous = statuses.get(host);
+        return previous != null && previous.ejected();
+    }
+
+    private double lagSecondsOf(String host) {
+        ReplicaStatus status = statuses.get(host);
+        return status == null || status.lagSeconds() == null ? -1 : status.lagSeconds();
+    }
+
+    private int healthyReplicaCount() {
+        return (int) statuses.values().stream().filter(ReplicaStatus::healthy).count();
+    }
+
+    private Connection ensureOpen(Connection connection, String url) throws SQLException {
+        if (connection != null && !connection.isClosed()) {
+            return connection;
+        }
+        return DriverManager.getConnection(url, username, password);
+    }
+
+    private static Connection closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // Probe connection is being discarded anyway
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void destroy() {
+        probeLock.lock();
+        try {
+            masterConnection = closeQuietly(masterConnection);
+            probeConnections.replaceAll((host, connection) -> closeQuietly(connection));
+        } finally {
+            probeLock.unlock();
+        }
+    }
+
+    public record ReplicaStatus(String host, boolean healthy, Long lagSeconds, boolean gtidCaughtUp,
+            boolean ejected, String error) {
+
+        ReplicaStatus withEjected(boolean ejected) {
+            return new ReplicaStatus(host, healthy, lagSeconds, gtidCaughtUp, ejected, error);
+        }
+    }
+
+    private record GtidSnapshot(long capturedAt, String gtidExecuted) {}
+}
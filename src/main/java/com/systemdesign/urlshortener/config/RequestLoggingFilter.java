@@ -1,94 +1,137 @@
 package com.systemdesign.urlshortener.config;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
-import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Sets the correlation ID for a request and writes one access log line when it completes.
+ * The line is built here and handed to the "access" logger, whose async appender does the
+ * I/O off the request thread (see logback-spring.xml). Successful requests are sampled at
+ * INFO; client errors, server errors and slow requests are always logged, at WARN so the async
+ * appender keeps them under backpressure.
+ *
+ * A client's X-Correlation-ID is echoed and logged only if it is at most 64 characters of
+ * [A-Za-z0-9._-]; anything else, such as CR/LF that would forge log lines, gets a generated ID.
+ */
 @Component
 public class RequestLoggingFilter implements Filter {
-    
+
+    private static final Logger accessLog = LoggerFactory.getLogger("access");
+
     private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
     private static final String CORRELATION_ID_MDC_KEY = "correlationId";
-    
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int MAX_CORRELATION_ID_LENGTH = 64;
+
+    // Large enough for a typical line, so the builder is allocated once and never grows
+    private static final int LINE_CAPACITY = 192;
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RequestLoggingFilter(
+            @Value("${app.logging.access.sample-rate:0.01}") double sampleRate,
+            @Value("${app.logging.access.slow-threshold:PT0.5S}") Duration slowThreshold) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("app.logging.access.sample-rate must be between 0 and 1 but was " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
-        
+
         String correlationId = getCorrelationIdFromHeader(httpRequest);
-        
+
         try (MDC.MDCCloseable closeable = MDC.putCloseable(CORRELATION_ID_MDC_KEY, correlationId)) {
             // Add correlation ID to response headers for client tracking
             httpResponse.setHeader(CORRELATION_ID_HEADER, correlationId);
-            
-            long startTime = System.currentTimeMillis();
-            
-            // Log request start
-            logRequestStart(httpRequest, correlationId);
-            
-            chain.doFilter(request, response);
-            
-            // Log request completion
-            long duration = System.currentTimeMillis() - startTime;
-            logRequestCompletion(httpRequest, correlationId, duration, httpResponse.getStatus());
-            
-        } finally {
-            MDC.remove(CORRELATION_ID_MDC_KEY);
+
+            long started = System.nanoTime();
+            boolean failed = true;
+            try {
+                chain.doFilter(request, response);
+                failed = false;
+            } finally {
+                // An exception leaving the chain becomes a 500 from the container
+                logAccess(httpRequest, correlationId, failed ? 500 : httpResponse.getStatus(), System.nanoTime() - started);
+            }
         }
     }
-    
-    private String getCorrelationIdFromHeader(HttpServletRequest httpRequest) {
-        String correlationId = httpRequest.getHeader(CORRELATION_ID_HEADER);
-        return correlationId != null ? correlationId : generateCorrelationId();
-    }
-    
-    private String generateCorrelationId() {
-        return "app_" + UUID.randomUUID().toString().substring(0, 8);
-    }
-    
-    private void logRequestStart(HttpServletRequest request, String correlationId) {
-        System.out.printf("REQUEST_START [%s] %s %s %s%n",
-            correlationId,
-            request.getMethod(),
-            request.getRequestURI(),
-            getClientInfo(request));
+
+    private void logAccess(HttpServletRequest request, String correlationId, int status, long elapsedNanos) {
+        if (status >= 400 || elapsedNanos >= slowThresholdNanos) {
+            // WARN so the async appender never discards it under backpressure
+            if (accessLog.isWarnEnabled()) {
+                accessLog.warn(accessLine(request, correlationId, status, elapsedNanos, 1));
+            }
+        } else if (isSampled() && accessLog.isInfoEnabled()) {
+            accessLog.info(accessLine(request, correlationId, status, elapsedNanos, sampleRate));
+        }
     }
-    
-    private void logRequestCompletion(HttpServletRequest request, String correlationId, 
-                                    long duration, int statusCode) {
-        System.out.printf("REQUEST_END [%s] %s %s - Status: %d - Duration: %dms%n",
-            correlationId,
-            request.getMethod(),
-            request.getRequestURI(),
-            statusCode,
-            duration);
+
+    private boolean isSampled() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
     }
-    
-    private String getClientInfo(HttpServletRequest request) {
-        return String.format("(IP: %s)", request.getRemoteAddr());
+
+    /**
+     * Space separated key=value pairs. sample is the rate the line was kept at, so counts
+     * derived from the log can be scaled back up (1 for lines that are always logged).
+     */
+    private static String accessLine(HttpServletRequest request, String correlationId, int status, long elapsedNanos, double sample) {
+        return new StringBuilder(LINE_CAPACITY)
+            .append("cid=").append(correlationId)
+            .append(" method=").append(request.getMethod())
+            .append(" path=").append(request.getRequestURI())
+            .append(" status=").append(status)
+            .append(" us=").append(elapsedNanos / 1_000)
+            .append(" ip=").append(request.getRemoteAddr())
+            .append(" sample=").append(sample)
+            .toString();
     }
-    
-    @Override
-    public void init(FilterConfig filterConfig) throws ServletException {
-        // Initialization logic if needed
+
+    private String getCorrelationIdFromHeader(HttpServletRequest httpRequest) {
+        String correlationId = httpRequest.getHeader(CORRELATION_ID_HEADER);
+        return isValidCorrelationId(correlationId) ? correlationId : generateCorrelationId();
     }
-    
-    @Override
-    public void destroy() {
-        // Cleanup logic if needed
+
+    private static boolean isValidCorrelationId(String correlationId) {
+        if (correlationId == null || correlationId.isEmpty() || correlationId.length() > MAX_CORRELATION_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < correlationId.length(); i++) {
+            char c = correlationId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
     }
 
-}
\ No newline at end of file
+    // Eight random hex digits; ThreadLocalRandom avoids the SecureRandom behind UUID.randomUUID()
+    private String generateCorrelationId() {
+        return "app_" + HEX.toHexDigits(ThreadLocalRandom.current().nextInt());
+    }
+}
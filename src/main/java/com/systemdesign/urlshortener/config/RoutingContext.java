@@ -0,0 +1,24 @@
+package com.systemdesign.urlshortener.config;
+
+/**
+ * Per-thread routing hint for {@link ReadWriteRoutingDataSource}. While master reads are
+ * preferred, read-only transactions on the current thread are sent to the write pool.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> PREFER_MASTER = new ThreadLocal<>();
+
+    private RoutingContext() {}
+
+    public static void preferMaster() {
+        PREFER_MASTER.set(Boolean.TRUE);
+    }
+
+    public static boolean isMasterPreferred() {
+        return PREFER_MASTER.get() != null;
+    }
+
+    public static void clear() {
+        PREFER_MASTER.remove();
+    }
+}
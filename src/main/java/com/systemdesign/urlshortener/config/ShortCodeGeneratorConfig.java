@@ -0,0 +1,41 @@
+package com.systemdesign.urlshortener.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.systemdesign.urlshortener.shortcode.BlockShortCodeGenerator;
+import com.systemdesign.urlshortener.shortcode.JdbcIdBlockAllocator;
+import com.systemdesign.urlshortener.shortcode.RandomShortCodeGenerator;
+import com.systemdesign.urlshortener.shortcode.ShortCodeGenerator;
+import com.systemdesign.urlshortener.shortcode.ShortCodePermutation;
+
+@Configuration
+public class ShortCodeGeneratorConfig {
+
+    @Value("${app.shortcode.mode:block}")
+    private String mode;
+
+    @Value("${app.shortcode.block-size:1000}")
+    private int blockSize;
+
+    @Value("${app.shortcode.length:7}")
+    private int length;
+
+    @Value("${app.shortcode.permutation-key:0}")
+    private long permutationKey;
+
+    @Bean
+    public ShortCodeGenerator shortCodeGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        return switch (mode) {
+            case "random" -> new RandomShortCodeGenerator();
+            case "block" -> new BlockShortCodeGenerator(
+                new JdbcIdBlockAllocator(jdbcTemplate, transactionManager),
+                new ShortCodePermutation(length, permutationKey),
+                blockSize);
+            default -> throw new IllegalArgumentException("Unknown app.shortcode.mode: " + mode + " (expected block or random)");
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.systemdesign.urlshortener.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.systemdesign.urlshortener.utils.NormalizationStrategy;
+import com.systemdesign.urlshortener.utils.UrlNormalizer;
+
+@Configuration
+public class UrlNormalizerConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlNormalizerConfig.class);
+
+    @Value("${app.normalizer.strategy:AGGRESSIVE}")
+    private NormalizationStrategy strategy;
+
+    // Exact names or prefix* patterns, stripped in addition to the strategy's own list
+    @Value("${app.normalizer.extra-tracking-parameters:}")
+    private List<String> extraTrackingParameters;
+
+    @Bean
+    public UrlNormalizer urlNormalizer() {
+        UrlNormalizer normalizer = new UrlNormalizer(strategy, extraTrackingParameters);
+        logger.info("URL normalization: {}", normalizer.getDescriptor());
+        return normalizer;
+    }
+}
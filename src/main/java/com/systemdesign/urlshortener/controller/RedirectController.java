@@ -0,0 +1,80 @@
+package com.systemdesign.urlshortener.controller;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+import com.systemdesign.urlshortener.service.UrlChangeService;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Bare {@code GET /{shortCode}} redirect. Writes status and headers straight onto the
+ * servlet response so the hottest path never goes through the DTO / Jackson layer.
+ */
+@RestController
+public class RedirectController {
+
+    private static final Set<Integer> REDIRECT_STATUSES = Set.of(301, 302, 303, 307, 308);
+
+    private final UrlChangeService urlChangeService;
+    private final int redirectStatus;
+    private final long cacheMaxAgeSeconds;
+    private final String cacheControl;
+
+    public RedirectController(
+            UrlChangeService urlChangeService,
+            @Value("${app.redirect.status:302}") int redirectStatus,
+            @Value("${app.redirect.cache-max-age:0}") long cacheMaxAgeSeconds) {
+        if (!REDIRECT_STATUSES.contains(redirectStatus)) {
+            throw new IllegalArgumentException("app.redirect.status must be one of " + REDIRECT_STATUSES + " but was " + redirectStatus);
+        }
+        this.urlChangeService = urlChangeService;
+        this.redirectStatus = redirectStatus;
+        this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
+        // Built once; the same header value is written on every redirect
+        this.cacheControl = cacheMaxAgeSeconds > 0 ? "public, max-age=" + cacheMaxAgeSeconds : null;
+    }
+
+    @GetMapping("/{shortCode:[A-Za-z0-9]{1,10}}")
+    public void redirect(@PathVariable String shortCode, HttpServletResponse response) {
+        ResolvedUrl resolved = this.urlChangeService.resolveShortCode(shortCode);
+        if (!resolved.isFound()) {
+            // 404 is heuristically cacheable; a code created on another instance moments ago can be
+            // unknown here until the short code filter's next catch-up, and must resolve right after it
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            return;
+        }
+        if (resolved.isExpired()) {
+            response.setStatus(HttpStatus.GONE.value());
+            return;
+        }
+
+        response.setStatus(redirectStatus);
+        response.setHeader(HttpHeaders.LOCATION, resolved.longUrl());
+        String cacheControl = cacheControl(resolved.expiresAtMillis());
+        if (cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+    }
+
+    // A cached redirect must not outlive its link, or caches keep redirecting where a 410 is due:
+    // expiring links are cached at most until expires_at, and not at all once that is under a second away
+    private String cacheControl(long expiresAtMillis) {
+        if (expiresAtMillis == 0L) {
+            return cacheControl;
+        }
+        long secondsLeft = (expiresAtMillis - System.currentTimeMillis()) / 1000;
+        if (secondsLeft <= 0 || cacheMaxAgeSeconds <= 0) {
+            return "no-store";
+        }
+        return secondsLeft >= cacheMaxAgeSeconds ? cacheControl : "public, max-age=" + secondsLeft;
+    }
+}
@@ -1,24 +1,40 @@
 package com.systemdesign.urlshortener.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.systemdesign.urlshortener.config.RoutingContext;
+
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+import com.systemdesign.urlshortener.model.dto.BatchResolveRequest;
+import com.systemdesign.urlshortener.model.dto.BatchUrlItem;
+import com.systemdesign.urlshortener.model.dto.BatchUrlRequest;
+import com.systemdesign.urlshortener.model.dto.ClickStatsResponse;
 import com.systemdesign.urlshortener.model.dto.ErrorResponse;
 import com.systemdesign.urlshortener.model.dto.UrlRequest;
 import com.systemdesign.urlshortener.model.dto.UrlResponse;
+import com.systemdesign.urlshortener.service.ClickStatsService;
 import com.systemdesign.urlshortener.service.UrlChangeService;
 
 @RestController
@@ -29,22 +45,60 @@ public class UrlChanger {
     @Autowired
     private UrlChangeService urlChangeService;
 
+    @Autowired
+    private ClickStatsService clickStatsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${app.expiry.max-ttl-seconds:315360000}")
+    private long maxTtlSeconds;
+
     @GetMapping("/api/{shortCode}")
     public ResponseEntity<?> getUrl(@PathVariable String shortCode){
+        // Hits and misses are recorded once by the access log; only failures are logged here
         String correlationId = MDC.get("correlationId");
-        Instant now = Instant.now();
-        logger.info("[{}] - Request received for URL retrieval with short code: {}", correlationId, shortCode);
             try  {
-            String originalUrl = this.urlChangeService.getOriginalUrl(shortCode);
+            ResolvedUrl resolved = this.urlChangeService.resolveShortCode(shortCode);
+            if (resolved.isFound() && resolved.isExpired()) {
+                ErrorResponse error = new ErrorResponse("Short URL has expired", 410);
+                return ResponseEntity.status(HttpStatus.GONE).body(error);
+            }
+            String originalUrl = resolved.longUrl();
             if (originalUrl != null) {
                 UrlResponse response = new UrlResponse(shortCode, originalUrl);
-                logger.info("[{}] - Returning Original URL: {} for Short Code: {} in {} ms", correlationId, originalUrl, shortCode, Duration.between(now, Instant.now()).toMillis());
                 return ResponseEntity.ok(response);
             } else {
+                ErrorResponse error = new ErrorResponse("Short URL not found", 404);
+                logger.debug("[{}] - Short Code: {} not found", correlationId, shortCode);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+        } catch (Exception e) {
+            ErrorResponse error = new ErrorResponse("Server error: " + e.getMessage(), 500);
+            logger.error("[{}] - Error: {}", correlationId, error.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @GetMapping("/api/{shortCode}/stats")
+    public ResponseEntity<?> getClickStats(@PathVariable String shortCode, @RequestParam(defaultValue = "30") int days){
+        String correlationId = MDC.get("correlationId");
+        if (days < 1 || days > 366) {
+            ErrorResponse error = new ErrorResponse("days must be between 1 and 366", 400);
+            logger.error("[{}] - Error: {}", correlationId, error.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+        try {
+            ClickStatsResponse stats = this.clickStatsService.getClickStats(shortCode, days);
+            if (stats == null) {
                 ErrorResponse error = new ErrorResponse("Short URL not found", 404);
                 logger.error("[{}] - Error: {}", correlationId, error.getMessage());
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
+            return ResponseEntity.ok(stats);
         } catch (Exception e) {
             ErrorResponse error = new ErrorResponse("Server error: " + e.getMessage(), 500);
             logger.error("[{}] - Error: {}", correlationId, error.getMessage());
@@ -55,7 +109,6 @@ public class UrlChanger {
     @PostMapping("/api/shorten")
     public ResponseEntity<?> getShortCode(@NonNull @RequestBody UrlRequest url){
         String correlationId = MDC.get("correlationId");
-        long startTime = System.nanoTime();
         try {
             if (url.getUrl() == null) {
                 ErrorResponse error = new ErrorResponse("URL is required", 400);
@@ -64,9 +117,8 @@ public class UrlChanger {
             }
             
             String inputUrl = url.getUrl();
-            String shortCode = this.urlChangeService.getShortCode(inputUrl);
-            long executionTime = (System.nanoTime() - startTime) / 1000; // Convert nanoseconds to milliseconds
-            logger.info("[{}] - Generated Short Code: {} for Original URL: {} in {} ms", correlationId, shortCode, inputUrl, executionTime);
+            String shortCode = this.urlChangeService.getShortCode(inputUrl, ttl(url.getTtlSeconds()));
+            logger.debug("[{}] - Generated Short Code: {}", correlationId, shortCode);
             
             UrlResponse response = new UrlResponse(shortCode, inputUrl);
             return ResponseEntity.ok(response);
@@ -81,4 +133,84 @@ public class UrlChanger {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
+
+    @PostMapping("/api/shorten/batch")
+    public ResponseEntity<?> getShortCodes(@NonNull @RequestBody BatchUrlRequest request){
+        String correlationId = MDC.get("correlationId");
+        List<String> urls = request.getUrls();
+        if (urls == null || urls.isEmpty()) {
+            ErrorResponse error = new ErrorResponse("URLs are required", 400);
+            logger.error("[{}] - Error: {}", correlationId, error.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+        if (urls.size() > maxBatchSize) {
+            ErrorResponse error = new ErrorResponse("At most " + maxBatchSize + " URLs per batch", 400);
+            logger.error("[{}] - Error: {}", correlationId, error.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        try {
+            List<BatchUrlItem> results = this.urlChangeService.getShortCodes(urls, ttl(request.getTtlSeconds()));
+            logger.debug("[{}] - Shortened batch of {} URLs", correlationId, results.size());
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            ErrorResponse error = new ErrorResponse(e.getMessage(), 400);
+            logger.error("[{}] - Error: {}", correlationId, error.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            ErrorResponse error = new ErrorResponse("Server error: " + e.getMessage(), 500);
+            logger.error("[{}] - Batch of {} URLs Error: {}", correlationId, urls.size(), error.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @PostMapping("/api/resolve/batch")
+    public ResponseEntity<?> getUrls(@NonNull @RequestBody BatchResolveRequest request){
+        String correlationId = MDC.get("correlationId");
+        List<String> shortCodes = request.getShortCodes();
+        if (shortCodes == null || shortCodes.isEmpty()) {
+            ErrorResponse error = new ErrorResponse("Short codes are required", 400);
+            logger.error("[{}] - Error: {}", correlationId, error.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+        if (shortCodes.size() > maxBatchSize) {
+            ErrorResponse error = new ErrorResponse("At most " + maxBatchSize + " short codes per batch", 400);
+            logger.error("[{}] - Error: {}", correlationId, error.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        // Results are written as they resolve: [{"shortCode":..,"originalUrl":..}, ...]. The body runs
+        // on an async thread, so the read-your-writes routing hint is carried over from this one
+        boolean masterPreferred = RoutingContext.isMasterPreferred();
+        StreamingResponseBody body = outputStream -> {
+            if (masterPreferred) {
+                RoutingContext.preferMaster();
+            }
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(outputStream)) {
+                json.writeStartArray();
+                this.urlChangeService.getOriginalUrls(shortCodes, (shortCode, originalUrl) -> {
+                    try {
+                        json.writeStartObject();
+                        json.writeStringField("shortCode", shortCode);
+                        json.writeStringField("originalUrl", originalUrl);
+                        json.writeEndObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            } finally {
+                RoutingContext.clear();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private Duration ttl(Long ttlSeconds) {
+        if (ttlSeconds == null)
+            return null;
+        if (ttlSeconds <= 0 || ttlSeconds > maxTtlSeconds)
+            throw new IllegalArgumentException("ttlSeconds must be between 1 and " + maxTtlSeconds);
+        return Duration.ofSeconds(ttlSeconds);
+    }
 }
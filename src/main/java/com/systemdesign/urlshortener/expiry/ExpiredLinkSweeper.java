@@ -0,0 +1,127 @@
+package com.systemdesign.urlshortener.expiry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.systemdesign.urlshortener.cache.UrlResolveCache;
+import com.systemdesign.urlshortener.config.ReplicationLagMonitor;
+import com.systemdesign.urlshortener.repository.UrlMappingWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Purges expired links in small batches so a large backlog never turns into one long
+ * DELETE: every batch is its own short transaction holding only its own row locks, batches
+ * are separated by a pause, and a run stops early as soon as a replica that still serves reads
+ * is reported lagging, leaving the rest for the next run. Replicas ejected from the read pool
+ * do not pause it, and after app.expiry.sweeper.max-paused-runs paused runs in a row a run
+ * goes ahead anyway, so a replica that never recovers cannot stop expiry for good.
+ *
+ * Expired links already resolve to 410 from their cached expiry, so purging is only about
+ * reclaiming space; it never has to be prompt. Purged codes are dropped from this instance's
+ * resolve cache; other instances drop theirs within the cache's negative TTL after expiry.
+ */
+@Component
+@ConditionalOnProperty(name = "app.expiry.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredLinkSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredLinkSweeper.class);
+
+    public enum Mode { DELETE, ARCHIVE }
+
+    private final UrlMappingWriter urlMappingWriter;
+    private final UrlResolveCache resolveCache;
+    private final ObjectProvider<ReplicationLagMonitor> lagMonitor;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration batchPause;
+    private final boolean archive;
+    private final int maxPausedRuns;
+    private final Counter purged;
+
+    // Only the scheduler thread touches these
+    private int pausedRuns;
+
+    // Set once the archive table is known to exist; only the scheduler thread touches it
+    private boolean archiveTableReady;
+
+    public ExpiredLinkSweeper(
+            UrlMappingWriter urlMappingWriter,
+            UrlResolveCache resolveCache,
+            ObjectProvider<ReplicationLagMonitor> lagMonitor,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.expiry.sweeper.batch-size:500}") int batchSize,
+            @Value("${app.expiry.sweeper.max-batches:200}") int maxBatches,
+            @Value("${app.expiry.sweeper.batch-pause:PT0.1S}") Duration batchPause,
+            @Value("${app.expiry.sweeper.mode:DELETE}") Mode mode,
+            @Value("${app.expiry.sweeper.max-paused-runs:10}") int maxPausedRuns,
+            MeterRegistry meterRegistry) {
+        this.urlMappingWriter = urlMappingWriter;
+        this.resolveCache = resolveCache;
+        this.lagMonitor = lagMonitor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.batchPause = batchPause;
+        this.archive = mode == Mode.ARCHIVE;
+        this.maxPausedRuns = maxPausedRuns;
+        this.purged = Counter.builder("links.expired.purged")
+            .description("Expired links deleted (or archived) by the sweeper")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.expiry.sweeper.interval:PT1M}", fixedDelayString = "${app.expiry.sweeper.interval:PT1M}")
+    public void sweep() {
+        if (archive && !archiveTableReady) {
+            // Outside the batch transactions: DDL would commit them and release their row locks
+            urlMappingWriter.createArchiveTable();
+            archiveTableReady = true;
+        }
+        int total = 0;
+        boolean paused = false;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            if (pausedRuns < maxPausedRuns && replicasLagging()) {
+                logger.info("Expiry sweep paused after {} links: replicas are lagging", total);
+                paused = true;
+                break;
+            }
+            Instant now = Instant.now();
+            List<String> shortCodes = transactionTemplate.execute(status -> urlMappingWriter.purgeExpired(now, batchSize, archive));
+            resolveCache.invalidateAll(shortCodes);
+            purged.increment(shortCodes.size());
+            total += shortCodes.size();
+            if (shortCodes.size() < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(batchPause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        pausedRuns = paused ? pausedRuns + 1 : 0;
+        if (total > 0) {
+            logger.info("Expiry sweep {} {} links", archive ? "archived" : "deleted", total);
+        }
+    }
+
+    private boolean replicasLagging() {
+        ReplicationLagMonitor monitor = lagMonitor.getIfAvailable();
+        // An ejected replica serves no reads, so its lag is nobody's stale read
+        return monitor != null && monitor.getReplicaStatuses().stream().anyMatch(status -> !status.healthy() && !status.ejected());
+    }
+}
@@ -1,56 +1,138 @@
 package com.systemdesign.urlshortener.health;
 
 import java.sql.Connection;
-import java.sql.Statement;
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.systemdesign.urlshortener.config.ReplicationLagMonitor;
+import com.systemdesign.urlshortener.config.ReplicationLagMonitor.ReplicaStatus;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Health of the write and read pools, computed by a background probe and served from the last
+ * snapshot. nginx and the container health checks poll constantly on every instance; with the
+ * snapshot, a health request never waits for a pool connection or reaches the database.
+ *
+ * Every app.health.probe.interval the probe reads pool statistics from Hikari, which needs no
+ * connection, and validates one connection per pool. When every connection is busy, the database
+ * is evidently answering, so the probe does not queue for one and keeps the last result.
+ * Saturation is a detail, never a DOWN: a saturated node is slow, and taking it out of rotation
+ * would only move its load to the others. Replica lag comes from the ReplicationLagMonitor's own
+ * probe when it runs.
+ */
 @Component
 public class MultiDataSourceHealthIndicator implements HealthIndicator {
-    
-    private final DataSource writeDataSource;
-    private final DataSource readDataSource;
-    
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final HikariDataSource writePool;
+    private final HikariDataSource readPool;
+    private final ReplicationLagMonitor lagMonitor;
+
+    // Written only by the probe
+    private final Map<String, Boolean> lastReachable = new LinkedHashMap<>();
+
+    private volatile Health snapshot = Health.unknown().withDetail("reason", "Not probed yet").build();
+
     public MultiDataSourceHealthIndicator(
             @Qualifier("writeDataSource") DataSource writeDataSource,
-            @Qualifier("readDataSource") DataSource readDataSource) {
-        this.writeDataSource = writeDataSource;
-        this.readDataSource = readDataSource;
+            @Qualifier("readDataSource") DataSource readDataSource,
+            ObjectProvider<ReplicationLagMonitor> lagMonitor) {
+        this.writePool = hikari(writeDataSource);
+        this.readPool = hikari(readDataSource);
+        this.lagMonitor = lagMonitor.getIfAvailable();
     }
-    
+
     @Override
     public Health health() {
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${app.health.probe.interval:PT5S}")
+    public void probe() {
         Map<String, Object> details = new LinkedHashMap<>();
-        
-        // Check write database
-        boolean writeDbHealthy = checkDataSource(writeDataSource, "write");
-        details.put("writeDatabase", writeDbHealthy ? "UP" : "DOWN");
-        
-        // Check read database
-        boolean readDbHealthy = checkDataSource(readDataSource, "read");
-        details.put("readDatabase", readDbHealthy ? "UP" : "DOWN");
-        
-        if (writeDbHealthy && readDbHealthy) {
-            return Health.up().withDetails(details).build();
+        boolean writeDbHealthy = checkPool(writePool, "writeDatabase", details);
+        boolean readDbHealthy = checkPool(readPool, "readDatabase", details);
+        if (lagMonitor != null) {
+            details.put("replicas", replicaDetails());
+        }
+        details.put("checkedAt", Instant.now().toString());
+
+        snapshot = (writeDbHealthy && readDbHealthy ? Health.up() : Health.down()).withDetails(details).build();
+    }
+
+    private boolean checkPool(HikariDataSource dataSource, String name, Map<String, Object> details) {
+        Map<String, Object> poolDetails = new LinkedHashMap<>();
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+
+        boolean reachable;
+        if (pool != null && pool.getActiveConnections() > 0 && pool.getIdleConnections() == 0) {
+            reachable = lastReachable.getOrDefault(name, true);
+            poolDetails.put("validation", "skipped, all connections in use");
         } else {
-            return Health.down().withDetails(details).build();
+            // A pool that has not started yet is started by this first connection
+            reachable = validate(dataSource, poolDetails);
+            lastReachable.put(name, reachable);
+        }
+        poolDetails.put("status", reachable ? "UP" : "DOWN");
+
+        if (pool != null) {
+            int max = dataSource.getMaximumPoolSize();
+            poolDetails.put("active", pool.getActiveConnections());
+            poolDetails.put("idle", pool.getIdleConnections());
+            poolDetails.put("max", max);
+            poolDetails.put("pending", pool.getThreadsAwaitingConnection());
+            poolDetails.put("saturation", Math.round(100.0 * pool.getActiveConnections() / max) / 100.0);
         }
+        details.put(name, poolDetails);
+        return reachable;
     }
-    
-    private boolean checkDataSource(DataSource dataSource, String name) {
-        try (Connection connection = dataSource.getConnection();
-             Statement statement = connection.createStatement()) {
-            statement.execute("SELECT 1");
-            return true;
-        } catch (Exception e) {
-            return false;
+
+    private static boolean validate(DataSource dataSource, Map<String, Object> poolDetails) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return true;
+            }
+            poolDetails.put("error", "Connection is not valid");
+        } catch (SQLException e) {
+            poolDetails.put("error", e.getMessage());
+        }
+        return false;
+    }
+
+    private Map<String, Object> replicaDetails() {
+        Map<String, Object> replicas = new LinkedHashMap<>();
+        for (ReplicaStatus status : lagMonitor.getReplicaStatuses()) {
+            Map<String, Object> replica = new LinkedHashMap<>();
+            replica.put("healthy", status.healthy());
+            replica.put("lagSeconds", status.lagSeconds());
+            replica.put("gtidCaughtUp", status.gtidCaughtUp());
+            replica.put("ejected", status.ejected());
+            if (status.error() != null) {
+                replica.put("error", status.error());
+            }
+            replicas.put(status.host(), replica);
+        }
+        return replicas;
+    }
+
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Health probe needs Hikari pools", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package com.systemdesign.urlshortener.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Latency of each stage of shorten and resolve, under one meter name so a request can be broken
+ * down by stage: url.stage{stage, route, outcome}. route is the datasource a database stage was
+ * sent to (READ or WRITE) and "none" for in-memory stages. Every timer publishes a percentile
+ * histogram, which Prometheus aggregates across instances, plus p50/p99/p99.9 per instance.
+ *
+ * All tag combinations are registered up front, so recording is a field read and a timer update
+ * with no registry lookup. Stages are timed with System.nanoTime() by the caller.
+ */
+@Component
+public class StageTimers {
+
+    public static final String READ = "READ";
+    public static final String WRITE = "WRITE";
+    private static final String NO_ROUTE = "none";
+
+    public enum InsertOutcome {
+        // Our code was stored
+        CREATED,
+        // The URL was already shortened; its stored code was returned
+        EXISTING,
+        // The code was taken by another URL; the insert is retried with a new one
+        COLLISION
+    }
+
+    private final Timer normalized;
+    private final Timer normalizeRejected;
+    private final Timer hashed;
+    private final Timer cacheHit;
+    private final Timer cacheMiss;
+    private final Timer filterPassed;
+    private final Timer filterRejected;
+    private final Timer snapshotHit;
+    private final Timer snapshotMiss;
+    private final Timer readLookupFound;
+    private final Timer readLookupMissing;
+    private final Timer writeLookupFound;
+    private final Timer writeLookupMissing;
+    private final Timer[] inserts = new Timer[InsertOutcome.values().length];
+
+    public StageTimers(MeterRegistry meterRegistry) {
+        this.normalized = register(meterRegistry, "normalize", NO_ROUTE, "ok");
+        this.normalizeRejected = register(meterRegistry, "normalize", NO_ROUTE, "rejected");
+        this.hashed = register(meterRegistry, "hash", NO_ROUTE, "ok");
+        this.cacheHit = register(meterRegistry, "cache", NO_ROUTE, "hit");
+        this.cacheMiss = register(meterRegistry, "cache", NO_ROUTE, "miss");
+        this.filterPassed = register(meterRegistry, "filter", NO_ROUTE, "passed");
+        this.filterRejected = register(meterRegistry, "filter", NO_ROUTE, "rejected");
+        this.snapshotHit = register(meterRegistry, "snapshot", NO_ROUTE, "hit");
+        this.snapshotMiss = register(meterRegistry, "snapshot", NO_ROUTE, "miss");
+        this.readLookupFound = register(meterRegistry, "db.lookup", READ, "found");
+        this.readLookupMissing = register(meterRegistry, "db.lookup", READ, "missing");
+        this.writeLookupFound = register(meterRegistry, "db.lookup", WRITE, "found");
+        this.writeLookupMissing = register(meterRegistry, "db.lookup", WRITE, "missing");
+        for (InsertOutcome outcome : InsertOutcome.values()) {
+            this.inserts[outcome.ordinal()] = register(meterRegistry, "db.insert", WRITE, outcome.name().toLowerCase());
+        }
+    }
+
+    public void recordNormalize(long startNanos, boolean accepted) {
+        record(accepted ? normalized : normalizeRejected, startNanos);
+    }
+
+    public void recordHash(long startNanos) {
+        record(hashed, startNanos);
+    }
+
+    public void recordCacheLookup(long startNanos, boolean hit) {
+        record(hit ? cacheHit : cacheMiss, startNanos);
+    }
+
+    public void recordFilter(long startNanos, boolean passed) {
+        record(passed ? filterPassed : filterRejected, startNanos);
+    }
+
+    public void recordSnapshotLookup(long startNanos, boolean hit) {
+        record(hit ? snapshotHit : snapshotMiss, startNanos);
+    }
+
+    /**
+     * route is where the lookup was sent; a replica lookup that the routing datasource moved to
+     * the master because of lag is still READ here and counted in datasource.routing.master.fallbacks.
+     */
+    public void recordLookup(long startNanos, String route, boolean found) {
+        Timer timer = WRITE.equals(route)
+            ? (found ? writeLookupFound : writeLookupMissing)
+            : (found ? readLookupFound : readLookupMissing);
+        record(timer, startNanos);
+    }
+
+    public void recordInsert(long startNanos, InsertOutcome outcome) {
+        record(inserts[outcome.ordinal()], startNanos);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer register(MeterRegistry meterRegistry, String stage, String route, String outcome) {
+        return Timer.builder("url.stage")
+            .description("Latency of one stage of shortening or resolving a URL")
+            .tag("stage", stage)
+            .tag("route", route)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .publishPercentiles(0.5, 0.99, 0.999)
+            // Bounds the histogram buckets: in-memory stages take microseconds, queries milliseconds
+            .minimumExpectedValue(Duration.ofNanos(500))
+            .maximumExpectedValue(Duration.ofSeconds(5))
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.systemdesign.urlshortener.model;
+
+import java.time.Instant;
+
+/**
+ * Result of resolving a short code, as held by the resolve cache.
+ * A null longUrl marks a short code that is known not to exist (negative entry).
+ * expiresAtMillis is 0 for links that never expire; expiry is checked against this
+ * cached value, never with an extra query.
+ */
+public record ResolvedUrl(String longUrl, long expiresAtMillis) {
+
+    public static final ResolvedUrl NOT_FOUND = new ResolvedUrl(null, 0L);
+
+    public ResolvedUrl(String longUrl) {
+        this(longUrl, 0L);
+    }
+
+    public static ResolvedUrl of(String longUrl, Instant expiresAt) {
+        return new ResolvedUrl(longUrl, expiresAt != null ? expiresAt.toEpochMilli() : 0L);
+    }
+
+    public boolean isFound() {
+        return longUrl != null;
+    }
+
+    public boolean isExpired() {
+        return expiresAtMillis != 0L && expiresAtMillis <= System.currentTimeMillis();
+    }
+
+    // Found and not expired: the only state that redirects
+    public boolean isLive() {
+        return isFound() && !isExpired();
+    }
+}
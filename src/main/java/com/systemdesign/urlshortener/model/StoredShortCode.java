@@ -0,0 +1,16 @@
+package com.systemdesign.urlshortener.model;
+
+import java.time.Instant;
+
+/**
+ * Short code stored for a URL hash, with its expiry as stored (null for links that never
+ * expire). Returned by the dedup lookups so a shorten request only updates the expiry of an
+ * existing link when the request asks it to live longer.
+ */
+public record StoredShortCode(String shortCode, Instant expiresAt) {
+
+    // True when the stored link already lives at least until requestedExpiry (null: forever)
+    public boolean outlives(Instant requestedExpiry) {
+        return expiresAt == null || (requestedExpiry != null && !expiresAt.isBefore(requestedExpiry));
+    }
+}
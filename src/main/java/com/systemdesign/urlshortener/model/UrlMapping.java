@@ -1,5 +1,6 @@
 package com.systemdesign.urlshortener.model;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -14,11 +15,9 @@ import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "url_mappings", 
-       indexes = {
-           @Index(name = "idx_short_code", columnList = "shortCode"),
-           @Index(name = "idx_long_url_hash", columnList = "longUrlHash")
-       })
+// short_code and long_url_hash are looked up through their unique keys; expires_at is indexed
+// only for the expiry sweeper's range scan
+@Table(name = "url_mappings", indexes = @Index(name = "idx_expires_at", columnList = "expires_at"))
 public class UrlMapping {
     
     @Id
@@ -28,12 +27,23 @@ public class UrlMapping {
     @Column(name = "short_code", nullable = false, unique = true, length = 10)
     private String shortCode;
     
-    @Column(name = "long_url", nullable = false, unique = true, columnDefinition = "TEXT")
+    // Uniqueness is enforced on long_url_hash; a unique key on the TEXT column itself is redundant
+    @Column(name = "long_url", nullable = false, columnDefinition = "TEXT")
     private String longUrl;
     
+    // Hex SHA-256 in the default CHAR(64) schema. With app.hash.storage=BINARY the column is
+    // BINARY(32) and is only read and written through UrlMappingWriter
     @Column(name = "long_url_hash", nullable = false, unique = true, length = 64)
     private String longUrlHash;
     
+    // Incremented in batches by the click counter's write-behind flush, never through this entity
+    @Column(name = "click_count", nullable = false, insertable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long clickCount;
+    
+    // Null for links that never expire. Expired rows resolve to 410 until the sweeper purges them
+    @Column(name = "expires_at", columnDefinition = "DATETIME NULL")
+    private Instant expiresAt;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -80,6 +90,18 @@ public class UrlMapping {
         this.longUrlHash = longUrlHash;
     }
     
+    public long getClickCount() {
+        return clickCount;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -95,6 +117,7 @@ public class UrlMapping {
                 ", shortCode='" + shortCode + '\'' +
                 ", longUrl='" + longUrl + '\'' +
                 ", longUrlHash='" + longUrlHash + '\'' +
+                ", expiresAt=" + expiresAt +
                 ", createdAt=" + createdAt +
                 '}';
     }
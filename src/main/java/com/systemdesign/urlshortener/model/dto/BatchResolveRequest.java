@@ -0,0 +1,16 @@
+package com.systemdesign.urlshortener.model.dto;
+
+import java.util.List;
+
+public class BatchResolveRequest {
+    private List<String> shortCodes;
+
+    public BatchResolveRequest() {}
+
+    public BatchResolveRequest(List<String> shortCodes) {
+        this.shortCodes = shortCodes;
+    }
+
+    public List<String> getShortCodes() { return shortCodes; }
+    public void setShortCodes(List<String> shortCodes) { this.shortCodes = shortCodes; }
+}
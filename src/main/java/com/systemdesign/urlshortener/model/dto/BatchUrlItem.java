@@ -0,0 +1,34 @@
+package com.systemdesign.urlshortener.model.dto;
+
+// One entry of a batch response; either shortCode or error is set
+public class BatchUrlItem {
+    private String url;
+    private String shortCode;
+    private String error;
+
+    public BatchUrlItem() {}
+
+    public BatchUrlItem(String url, String shortCode, String error) {
+        this.url = url;
+        this.shortCode = shortCode;
+        this.error = error;
+    }
+
+    public static BatchUrlItem success(String url, String shortCode) {
+        return new BatchUrlItem(url, shortCode, null);
+    }
+
+    public static BatchUrlItem failure(String url, String error) {
+        return new BatchUrlItem(url, null, error);
+    }
+
+    // getters and setters
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getShortCode() { return shortCode; }
+    public void setShortCode(String shortCode) { this.shortCode = shortCode; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,21 @@
+package com.systemdesign.urlshortener.model.dto;
+
+import java.util.List;
+
+public class BatchUrlRequest {
+    private List<String> urls;
+    // Optional lifetime in seconds applied to every link in the batch
+    private Long ttlSeconds;
+
+    public BatchUrlRequest() {}
+
+    public BatchUrlRequest(List<String> urls) {
+        this.urls = urls;
+    }
+
+    public List<String> getUrls() { return urls; }
+    public void setUrls(List<String> urls) { this.urls = urls; }
+
+    public Long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(Long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+}
@@ -0,0 +1,28 @@
+package com.systemdesign.urlshortener.model.dto;
+
+import java.util.List;
+
+// Aggregate clicks for a short code; totalClicks includes clicks this instance has not flushed yet
+public class ClickStatsResponse {
+    private String shortCode;
+    private long totalClicks;
+    private List<DailyClicks> daily;
+
+    public ClickStatsResponse() {}
+
+    public ClickStatsResponse(String shortCode, long totalClicks, List<DailyClicks> daily) {
+        this.shortCode = shortCode;
+        this.totalClicks = totalClicks;
+        this.daily = daily;
+    }
+
+    // getters and setters
+    public String getShortCode() { return shortCode; }
+    public void setShortCode(String shortCode) { this.shortCode = shortCode; }
+
+    public long getTotalClicks() { return totalClicks; }
+    public void setTotalClicks(long totalClicks) { this.totalClicks = totalClicks; }
+
+    public List<DailyClicks> getDaily() { return daily; }
+    public void setDaily(List<DailyClicks> daily) { this.daily = daily; }
+}
@@ -0,0 +1,23 @@
+package com.systemdesign.urlshortener.model.dto;
+
+import java.time.LocalDate;
+
+// Clicks on one short code during one UTC day
+public class DailyClicks {
+    private LocalDate date;
+    private long clicks;
+
+    public DailyClicks() {}
+
+    public DailyClicks(LocalDate date, long clicks) {
+        this.date = date;
+        this.clicks = clicks;
+    }
+
+    // getters and setters
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public long getClicks() { return clicks; }
+    public void setClicks(long clicks) { this.clicks = clicks; }
+}
@@ -3,11 +3,26 @@ package com.systemdesign.urlshortener.model.dto;
 
 public class UrlRequest {
     String url;
+    // Optional lifetime of the link in seconds; absent for links that never expire
+    Long ttlSeconds;
+
+    public UrlRequest() {}
+
     public String getUrl() {
         return url;
     }
+    public void setUrl(String url) {
+        this.url = url;
+    }
     public UrlRequest(String url) {
         this.url = url;
     }
 
+    public Long getTtlSeconds() {
+        return ttlSeconds;
+    }
+    public void setTtlSeconds(Long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
 }
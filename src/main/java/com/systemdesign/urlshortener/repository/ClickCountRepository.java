@@ -0,0 +1,155 @@
+package com.systemdesign.urlshortener.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Click totals (url_mappings.click_count) and per-day click counts (url_click_stats).
+ *
+ * {@link #addClicks} is the write-behind flush: both tables are updated in one transaction on
+ * the master with a handful of multi-row statements, however many codes were clicked. The read
+ * methods run on whatever connection the caller's transaction routes to.
+ */
+@Repository
+public class ClickCountRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClickCountRepository.class);
+
+    // Keeps the CASE expression and IN list of one UPDATE to a reasonable size
+    private static final int UPDATE_CHUNK_SIZE = 500;
+
+    private static final String UPSERT_DAILY_SQL =
+        "INSERT INTO url_click_stats (short_code, click_date, clicks) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks)";
+
+    private static final String SELECT_TOTAL_SQL = "SELECT click_count FROM url_mappings WHERE short_code = ?";
+
+    private static final String SELECT_DAILY_SQL =
+        "SELECT click_date, clicks FROM url_click_stats WHERE short_code = ? AND click_date >= ? ORDER BY click_date";
+
+    // A range scan of idx_click_date; only the days asked for are read and grouped
+    private static final String SELECT_MOST_CLICKED_SQL =
+        "SELECT short_code FROM url_click_stats WHERE click_date >= ? GROUP BY short_code ORDER BY SUM(clicks) DESC LIMIT ?";
+
+    // No index on click_count, which every click flush updates; this scans url_mappings, so callers bound it with a timeout
+    private static final String SELECT_MOST_CLICKED_TOTAL_SQL =
+        "SELECT short_code FROM url_mappings WHERE click_count > 0 ORDER BY click_count DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean initialized;
+
+    public ClickCountRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Adds the given click counts to the codes' totals and to their counts for {@code day}.
+     * Codes that no longer exist are ignored by the total update. Rows are written in short code
+     * order, so flushes from several instances lock them in the same order and cannot deadlock.
+     */
+    public void addClicks(LocalDate day, Map<String, Long> clicks) {
+        if (clicks.isEmpty()) {
+            return;
+        }
+        if (!initialized) {
+            createStatsTable();
+        }
+        Date clickDate = Date.valueOf(day);
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(clicks.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        List<Object[]> dailyRows = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Long> entry : entries) {
+            dailyRows.add(new Object[] { entry.getKey(), clickDate, entry.getValue() });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // A single multi-row INSERT ... ON DUPLICATE KEY UPDATE with rewriteBatchedStatements
+            jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, dailyRows);
+            for (int from = 0; from < entries.size(); from += UPDATE_CHUNK_SIZE) {
+                updateTotals(entries.subList(from, Math.min(entries.size(), from + UPDATE_CHUNK_SIZE)));
+            }
+        });
+    }
+
+    // Stored total, or null when the short code does not exist
+    public Long findTotalClicks(String shortCode) {
+        List<Long> totals = jdbcTemplate.queryForList(SELECT_TOTAL_SQL, Long.class, shortCode);
+        return totals.isEmpty() ? null : totals.get(0);
+    }
+
+    // Per-day counts from {@code since} on, oldest first; days without clicks are absent
+    public Map<LocalDate, Long> findDailyClicks(String shortCode, LocalDate since) {
+        Map<LocalDate, Long> daily = new LinkedHashMap<>();
+        try {
+            jdbcTemplate.query(SELECT_DAILY_SQL, (RowCallbackHandler) rs -> daily.put(rs.getDate(1).toLocalDate(), rs.getLong(2)),
+                shortCode, Date.valueOf(since));
+        } catch (BadSqlGrammarException e) {
+            // Databases set up before click stats get the table with the first flush
+            return Collections.emptyMap();
+        }
+        return daily;
+    }
+
+    /**
+     * Codes with the most clicks from {@code since} on, most clicked first. Falls back to the
+     * all-time totals when there are no per-day counts for the period yet. Both queries honour
+     * the timeout of the caller's transaction.
+     */
+    public List<String> findMostClicked(LocalDate since, int limit) {
+        try {
+            List<String> shortCodes = jdbcTemplate.queryForList(SELECT_MOST_CLICKED_SQL, String.class, Date.valueOf(since), limit);
+            if (!shortCodes.isEmpty()) {
+                return shortCodes;
+            }
+        } catch (BadSqlGrammarException e) {
+            // Databases set up before click stats get the table with the first flush
+            logger.info("No per-day click counts to rank short codes by, using all-time totals: {}", e.getMessage());
+        }
+        return jdbcTemplate.queryForList(SELECT_MOST_CLICKED_TOTAL_SQL, String.class, limit);
+    }
+
+    // UPDATE url_mappings SET click_count = click_count + CASE short_code WHEN ? THEN ? ... END WHERE short_code IN (...)
+    private void updateTotals(List<Map.Entry<String, Long>> entries) {
+        StringBuilder sql = new StringBuilder("UPDATE url_mappings SET click_count = click_count + CASE short_code");
+        List<Object> args = new ArrayList<>(entries.size() * 3);
+        for (Map.Entry<String, Long> entry : entries) {
+            sql.append(" WHEN ? THEN ?");
+            args.add(entry.getKey());
+            args.add(entry.getValue());
+        }
+        sql.append(" ELSE 0 END WHERE short_code IN (");
+        for (int i = 0; i < entries.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            args.add(entries.get(i).getKey());
+        }
+        sql.append(')');
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private void createStatsTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS url_click_stats ("
+            + "short_code VARCHAR(10) NOT NULL, "
+            + "click_date DATE NOT NULL, "
+            + "clicks BIGINT NOT NULL, "
+            + "PRIMARY KEY (short_code, click_date), "
+            + "KEY idx_click_date (click_date, short_code, clicks))");
+        initialized = true;
+    }
+}
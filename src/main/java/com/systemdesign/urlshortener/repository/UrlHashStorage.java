@@ -0,0 +1,47 @@
+package com.systemdesign.urlshortener.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.systemdesign.urlshortener.utils.UrlUtils;
+
+/**
+ * Column format of url_mappings.long_url_hash (app.hash.storage). The application always
+ * works with the 64-char hex form; conversion happens only at the JDBC boundary.
+ *
+ * HEX keeps the original CHAR(64) column. BINARY stores the raw 32 digest bytes in a
+ * BINARY(32) column, halving the unique index - see scripts/migrate-url-hash-to-binary.sql.
+ */
+public enum UrlHashStorage {
+
+    HEX {
+        @Override
+        public Object toColumn(String hexHash) {
+            return hexHash;
+        }
+
+        @Override
+        public String read(ResultSet rs, int column) throws SQLException {
+            return rs.getString(column);
+        }
+    },
+
+    BINARY {
+        @Override
+        public Object toColumn(String hexHash) {
+            return UrlUtils.hexToBytes(hexHash);
+        }
+
+        @Override
+        public String read(ResultSet rs, int column) throws SQLException {
+            byte[] bytes = rs.getBytes(column);
+            return bytes != null ? UrlUtils.bytesToHex(bytes) : null;
+        }
+    };
+
+    // Value to bind for a hex hash
+    public abstract Object toColumn(String hexHash);
+
+    // Hex hash read from a result set column
+    public abstract String read(ResultSet rs, int column) throws SQLException;
+}
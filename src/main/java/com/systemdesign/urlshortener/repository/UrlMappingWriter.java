@@ -0,0 +1,195 @@
+package com.systemdesign.urlshortener.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.systemdesign.urlshortener.model.StoredShortCode;
+
+/**
+ * Write path for url_mappings that bypasses the persistence context. Statements run in
+ * auto-commit outside any read-only transaction, so they always reach the master.
+ *
+ * All access by long_url_hash goes through here so the column can be stored as hex or
+ * binary ({@link UrlHashStorage}); callers always pass and receive hex hashes.
+ */
+@Repository
+public class UrlMappingWriter {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO url_mappings (short_code, long_url, long_url_hash, expires_at, created_at) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+    private static final String INSERT_IGNORE_SQL =
+        "INSERT IGNORE INTO url_mappings (short_code, long_url, long_url_hash, expires_at, created_at) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+    // Both only ever lengthen a link's life; permanent links (expires_at NULL) never match
+    // Both match every listed row that still exists (a NULL expiry stays NULL), so with
+    // Connector/J's default found-rows count a shortfall means rows were purged meanwhile
+    private static final String EXTEND_EXPIRY_SQL =
+        "UPDATE url_mappings SET expires_at = CASE WHEN expires_at < :expiresAt THEN :expiresAt ELSE expires_at END "
+            + "WHERE short_code IN (:shortCodes)";
+
+    private static final String REMOVE_EXPIRY_SQL =
+        "UPDATE url_mappings SET expires_at = NULL WHERE short_code IN (:shortCodes)";
+
+    // The expires_at index bounds the scan; SKIP LOCKED lets several instances sweep side by side
+    private static final String SELECT_EXPIRED_SQL =
+        "SELECT id, short_code FROM url_mappings WHERE expires_at <= ? ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String ARCHIVE_SQL =
+        "INSERT INTO url_mappings_expired (id, short_code, long_url, click_count, created_at, expires_at, purged_at) "
+            + "SELECT id, short_code, long_url, click_count, created_at, expires_at, :purgedAt FROM url_mappings WHERE id IN (:ids)";
+
+    private static final String DELETE_BY_IDS_SQL = "DELETE FROM url_mappings WHERE id IN (:ids)";
+
+    private static final String SELECT_CODE_BY_HASH_SQL =
+        "SELECT short_code, expires_at FROM url_mappings WHERE long_url_hash = ?";
+
+    private static final String SELECT_CODES_BY_HASHES_SQL =
+        "SELECT long_url_hash, short_code, expires_at FROM url_mappings WHERE long_url_hash IN (:hashes)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final UrlHashStorage hashStorage;
+
+    public UrlMappingWriter(JdbcTemplate jdbcTemplate, @Value("${app.hash.storage:HEX}") UrlHashStorage hashStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.hashStorage = hashStorage;
+    }
+
+    /**
+     * Inserts a mapping, relying on the unique long_url_hash key for duplicate detection.
+     *
+     * @return the given short code if the row was inserted, the short code and expiry already
+     *         stored for this hash if the URL was shortened before, or null if only the short
+     *         code clashed with another URL's code
+     */
+    public StoredShortCode insertOrGetShortCode(String shortCode, String longUrl, String urlHash, Instant expiresAt) {
+        Object hashColumn = hashStorage.toColumn(urlHash);
+        try {
+            jdbcTemplate.update(INSERT_SQL, shortCode, longUrl, hashColumn, toTimestamp(expiresAt));
+            return new StoredShortCode(shortCode, expiresAt);
+        } catch (DuplicateKeyException e) {
+            // The conflicting row may have been committed a moment ago; this read goes to the master
+            List<StoredShortCode> existing = jdbcTemplate.query(SELECT_CODE_BY_HASH_SQL,
+                (rs, rowNum) -> new StoredShortCode(rs.getString(1), toInstant(rs.getTimestamp(2))), hashColumn);
+            return existing.isEmpty() ? null : existing.get(0);
+        }
+    }
+
+    /**
+     * Inserts many mappings as one JDBC batch (a single multi-row INSERT with
+     * rewriteBatchedStatements). Rows whose hash or short code already exists are skipped;
+     * callers read the stored codes back with {@link #findShortCodesByHashes}.
+     *
+     * @param rows short_code, long_url, long_url_hash triples
+     * @param expiresAt expiry shared by all rows, null for links that never expire
+     */
+    public void insertIgnoreBatch(List<Object[]> rows, Instant expiresAt) {
+        if (!rows.isEmpty()) {
+            Timestamp expiresAtColumn = toTimestamp(expiresAt);
+            List<Object[]> args = rows.stream()
+                .map(row -> new Object[] { row[0], row[1], hashStorage.toColumn((String) row[2]), expiresAtColumn })
+                .toList();
+            jdbcTemplate.batchUpdate(INSERT_IGNORE_SQL, args);
+        }
+    }
+
+    /**
+     * Moves the expiry of existing, expiring links out to {@code expiresAt}, or removes it when
+     * {@code expiresAt} is null. Used when a shorten request is answered with an already stored
+     * code whose stored expiry is shorter than requested ({@link StoredShortCode#outlives}), so
+     * that code is live for at least as long as the request asked for. An expiry that another
+     * request already moved further out is kept.
+     *
+     * @return the number of the given codes that still exist; fewer than given when the expiry
+     *         sweeper purged some of them since they were read
+     */
+    public int extendExpiry(Collection<String> shortCodes, Instant expiresAt) {
+        if (shortCodes.isEmpty()) {
+            return 0;
+        }
+        if (expiresAt == null) {
+            return namedJdbcTemplate.update(REMOVE_EXPIRY_SQL, Map.of("shortCodes", shortCodes));
+        }
+        return namedJdbcTemplate.update(EXTEND_EXPIRY_SQL, Map.of("shortCodes", shortCodes, "expiresAt", toTimestamp(expiresAt)));
+    }
+
+    /**
+     * Deletes up to {@code limit} rows that expired before {@code now}, copying them to
+     * url_mappings_expired first when {@code archive} is set. Must run inside a transaction,
+     * which holds the row locks of exactly this batch until it commits; the archive table must
+     * already exist ({@link #createArchiveTable()}).
+     *
+     * @return the short codes of the purged rows
+     */
+    public List<String> purgeExpired(Instant now, int limit, boolean archive) {
+        List<Long> ids = new ArrayList<>();
+        List<String> shortCodes = new ArrayList<>();
+        jdbcTemplate.query(SELECT_EXPIRED_SQL, (RowCallbackHandler) rs -> {
+            ids.add(rs.getLong(1));
+            shortCodes.add(rs.getString(2));
+        }, toTimestamp(now), limit);
+        if (ids.isEmpty()) {
+            return shortCodes;
+        }
+        if (archive) {
+            namedJdbcTemplate.update(ARCHIVE_SQL, Map.of("ids", ids, "purgedAt", toTimestamp(now)));
+        }
+        namedJdbcTemplate.update(DELETE_BY_IDS_SQL, Map.of("ids", ids));
+        return shortCodes;
+    }
+
+    /**
+     * Reads the short codes and expiries stored for the given hashes (hex hash -> stored code). Called
+     * outside a transaction this reads from the master, so rows inserted a moment ago by this
+     * or another instance are visible; inside a read-only transaction it uses that
+     * transaction's replica connection.
+     */
+    public Map<String, StoredShortCode> findShortCodesByHashes(Collection<String> urlHashes) {
+        Map<String, StoredShortCode> shortCodes = new HashMap<>();
+        if (!urlHashes.isEmpty()) {
+            List<Object> hashColumns = urlHashes.stream().map(hashStorage::toColumn).toList();
+            namedJdbcTemplate.query(SELECT_CODES_BY_HASHES_SQL, Map.of("hashes", hashColumns),
+                (RowCallbackHandler) rs -> shortCodes.put(hashStorage.read(rs, 1),
+                    new StoredShortCode(rs.getString(2), toInstant(rs.getTimestamp(3)))));
+        }
+        return shortCodes;
+    }
+
+    /**
+     * Creates url_mappings_expired if it does not exist. DDL commits implicitly in MySQL, so this
+     * must run on its own, never inside a purge transaction where it would release the batch's locks.
+     */
+    public void createArchiveTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS url_mappings_expired ("
+            + "id BIGINT NOT NULL PRIMARY KEY, "
+            + "short_code VARCHAR(10) NOT NULL, "
+            + "long_url TEXT NOT NULL, "
+            + "click_count BIGINT NOT NULL, "
+            + "created_at TIMESTAMP NULL, "
+            + "expires_at DATETIME NOT NULL, "
+            + "purged_at DATETIME NOT NULL, "
+            + "KEY idx_short_code (short_code))");
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -1,5 +1,8 @@
 package com.systemdesign.urlshortener.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,19 +15,22 @@ import com.systemdesign.urlshortener.model.UrlMapping;
 @Repository
 public interface UrlRepository extends JpaRepository<UrlMapping, Long> {
     
-    // Find by short code (for redirects)
-    Optional<UrlMapping> findByShortCode(String shortCode);
-    
-    // Find by URL hash (for duplicate detection)
-    Optional<UrlMapping> findByLongUrlHash(String longUrlHash);
-    
-    // Check if short code exists
-    boolean existsByShortCode(String shortCode);
-    
-    // Check if urlHash exists
-    boolean existsByLongUrlHash(String longUrlHash);
+    // Resolve in one round-trip: only the columns a redirect needs, no managed entity
+    @Query("SELECT u.longUrl AS longUrl, u.expiresAt AS expiresAt FROM UrlMapping u WHERE u.shortCode = :shortCode")
+    Optional<LongUrl> findLongUrlByShortCode(@Param("shortCode") String shortCode);
+
+    // Lookups by long_url_hash live in UrlMappingWriter, which handles the hex/binary column format
+
+    // Bulk resolve in one query
+    @Query("SELECT u.shortCode AS shortCode, u.longUrl AS longUrl, u.expiresAt AS expiresAt FROM UrlMapping u WHERE u.shortCode IN :shortCodes")
+    List<ShortCodeLongUrl> findLongUrlsByShortCodeIn(@Param("shortCodes") Collection<String> shortCodes);
+
+    interface LongUrl {
+        String getLongUrl();
+        Instant getExpiresAt();
+    }
 
-    // Custom query for efficient lookup
-    @Query("SELECT u.shortCode FROM UrlMapping u WHERE u.longUrlHash = :hash")
-    Optional<String> findShortCodeByLongUrlHash(@Param("hash") String longUrlHash);
-}
\ No newline at end of file
+    interface ShortCodeLongUrl extends LongUrl {
+        String getShortCode();
+    }
+}
@@ -0,0 +1,13 @@
+package com.systemdesign.urlshortener.service;
+
+import com.systemdesign.urlshortener.model.dto.ClickStatsResponse;
+
+/**
+ * Read side of click counting. Counts are written behind the resolve path, so stored totals
+ * trail live traffic by up to one flush interval per instance.
+ */
+public interface ClickStatsService {
+
+    // Total and per-day clicks over the last {@code days} days, or null for an unknown short code
+    ClickStatsResponse getClickStats(String shortCode, int days);
+}
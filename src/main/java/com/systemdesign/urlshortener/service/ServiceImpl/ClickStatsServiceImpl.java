@@ -0,0 +1,41 @@
+package com.systemdesign.urlshortener.service.ServiceImpl;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.systemdesign.urlshortener.analytics.ClickCounter;
+import com.systemdesign.urlshortener.model.dto.ClickStatsResponse;
+import com.systemdesign.urlshortener.model.dto.DailyClicks;
+import com.systemdesign.urlshortener.repository.ClickCountRepository;
+import com.systemdesign.urlshortener.service.ClickStatsService;
+
+@Service
+public class ClickStatsServiceImpl implements ClickStatsService {
+
+    @Autowired
+    private ClickCountRepository clickCountRepository;
+
+    @Autowired
+    private ClickCounter clickCounter;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ClickStatsResponse getClickStats(String shortCode, int days) {
+        Long storedClicks = this.clickCountRepository.findTotalClicks(shortCode);
+        if (storedClicks == null)
+            return null;
+
+        LocalDate since = LocalDate.now(ZoneOffset.UTC).minusDays(days - 1L);
+        List<DailyClicks> daily = new ArrayList<>();
+        for (Map.Entry<LocalDate, Long> day : this.clickCountRepository.findDailyClicks(shortCode, since).entrySet())
+            daily.add(new DailyClicks(day.getKey(), day.getValue()));
+        return new ClickStatsResponse(shortCode, storedClicks + this.clickCounter.pendingClicks(shortCode), daily);
+    }
+}
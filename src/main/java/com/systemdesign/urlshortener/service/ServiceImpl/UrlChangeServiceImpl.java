@@ -1,114 +1,421 @@
 package com.systemdesign.urlshortener.service.ServiceImpl;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.systemdesign.urlshortener.model.UrlMapping;
+import com.systemdesign.urlshortener.analytics.ClickCounter;
+import com.systemdesign.urlshortener.cache.RecentWriteTracker;
+import com.systemdesign.urlshortener.cache.ShortCodeBloomFilter;
+import com.systemdesign.urlshortener.cache.UrlResolveCache;
+import com.systemdesign.urlshortener.config.RoutingContext;
+import com.systemdesign.urlshortener.metrics.StageTimers;
+import com.systemdesign.urlshortener.metrics.StageTimers.InsertOutcome;
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+import com.systemdesign.urlshortener.model.StoredShortCode;
+import com.systemdesign.urlshortener.model.dto.BatchUrlItem;
+import com.systemdesign.urlshortener.repository.UrlMappingWriter;
 import com.systemdesign.urlshortener.repository.UrlRepository;
 import com.systemdesign.urlshortener.service.UrlChangeService;
+import com.systemdesign.urlshortener.service.UrlLookupService;
+import com.systemdesign.urlshortener.shortcode.ShortCodeGenerator;
+import com.systemdesign.urlshortener.snapshot.MappingSnapshotResolver;
 import com.systemdesign.urlshortener.utils.UrlNormalizer;
 import com.systemdesign.urlshortener.utils.UrlUtils;
 
-@Transactional
 @Service
 public class UrlChangeServiceImpl implements UrlChangeService{
     
     private static final Logger logger = LoggerFactory.getLogger(UrlChangeServiceImpl.class);
 
+    private static final int MAX_INSERT_ATTEMPTS = 5;
+
+    // Keeps IN (...) lists well below driver and optimizer limits
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
     
     @Autowired
     private UrlRepository urlRepository;
 
-    private final UrlNormalizer normalizer = new UrlNormalizer();
+    @Autowired
+    private UrlMappingWriter urlMappingWriter;
+
+    @Autowired
+    private UrlResolveCache resolveCache;
+
+    @Autowired
+    private UrlLookupService urlLookupService;
+
+    @Autowired
+    private RecentWriteTracker recentWriteTracker;
+
+    @Autowired
+    private ShortCodeBloomFilter shortCodeFilter;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private UrlNormalizer normalizer;
+
+    @Autowired
+    private MappingSnapshotResolver snapshotResolver;
+
+    @Autowired
+    private ClickCounter clickCounter;
+
+    @Autowired
+    private StageTimers stageTimers;
 
     
     @Override
     public String getOriginalUrl(String shortCode) {
+        ResolvedUrl resolved = this.resolveShortCode(shortCode);
+        return resolved.isLive() ? resolved.longUrl() : null;
+    }
+
+    @Override
+    public ResolvedUrl resolveShortCode(String shortCode) {
         if (shortCode == null || shortCode.isEmpty() || shortCode.isBlank())  {
-            logger.info("Short code {} is not valid", shortCode);
-            return null;
+            logger.debug("Short code {} is not valid", shortCode);
+            return ResolvedUrl.NOT_FOUND;
          }
-        return this.getMappedUrl(shortCode);
+
+        ResolvedUrl resolved = this.resolve(shortCode);
+        // In-memory increment only; counts reach the database with the next scheduled flush
+        if (resolved.isLive())
+            this.clickCounter.record(shortCode);
+        return resolved;
+    }
+
+    @Override
+    public ResolvedUrl peekShortCode(String shortCode) {
+        if (shortCode == null || shortCode.isBlank())
+            return ResolvedUrl.NOT_FOUND;
+        return this.resolve(shortCode);
+    }
+
+    private ResolvedUrl resolve(String shortCode) {
+        long started = System.nanoTime();
+        ResolvedUrl cached = this.resolveCache.get(shortCode);
+        this.stageTimers.recordCacheLookup(started, cached != null);
+        if (cached != null)
+            return cached;
+
+        // Codes that were never created end here. Never cached as missing: a code created on another
+        // instance since the filter's last catch-up also ends here, and must resolve once it catches up
+        started = System.nanoTime();
+        boolean mightExist = this.mightExist(shortCode);
+        this.stageTimers.recordFilter(started, mightExist);
+        if (!mightExist)
+            return ResolvedUrl.NOT_FOUND;
+
+        // Snapshot hits stay off-heap; only codes newer than the snapshot reach the database and the cache.
+        // An expired snapshot entry is re-checked, its expiry may have been extended since the export
+        started = System.nanoTime();
+        ResolvedUrl snapshotted = this.snapshotResolver.find(shortCode);
+        boolean snapshotHit = snapshotted != null && !snapshotted.isExpired();
+        this.stageTimers.recordSnapshotLookup(started, snapshotHit);
+        if (snapshotHit)
+            return snapshotted;
+
+        // Codes this instance just created go to the master; replicas may not have them yet
+        ResolvedUrl stored = null;
+        if (!this.recentWriteTracker.isRecent(shortCode)) {
+            started = System.nanoTime();
+            stored = this.urlLookupService.findLongUrl(shortCode);
+            String route = RoutingContext.isMasterPreferred() ? StageTimers.WRITE : StageTimers.READ;
+            this.stageTimers.recordLookup(started, route, stored != null);
+        }
+        if (stored == null) {
+            // A replica that lags behind the master has not seen freshly created codes yet
+            started = System.nanoTime();
+            stored = this.urlLookupService.findLongUrlOnMaster(shortCode);
+            this.stageTimers.recordLookup(started, StageTimers.WRITE, stored != null);
+        }
+        if (stored != null) {
+            this.resolveCache.put(shortCode, stored);
+            return stored;
+        }
+        this.shortCodeFilter.recordFalsePositive();
+        this.resolveCache.putMissing(shortCode);
+        return ResolvedUrl.NOT_FOUND;
      }
 
-     
-    @Transactional(readOnly = true)
-    private String getMappedUrl(String shortCode) {
-        if (this.urlRepository.existsByShortCode(shortCode))
-         {
-            Optional<UrlMapping> optionalMap = this.urlRepository.findByShortCode(shortCode);
-            
-            if (optionalMap.isPresent())  {
-                UrlMapping mappedUrl = optionalMap.get();
-                logger.info("Retrieved URL Mapping for short code {} : {}", shortCode, mappedUrl.toString());
-                return mappedUrl.getLongUrl();
-             } else {
-                 logger.error("No mapping found for short code {} ", shortCode);
+    private boolean mightExist(String shortCode) {
+        // The read-your-writes cookie only picks the datasource; as client input it must not switch off the filter
+        return this.recentWriteTracker.isRecent(shortCode)
+            || this.shortCodeFilter.mightExist(shortCode);
+    }
+
+
+    @Override
+    public void getOriginalUrls(Collection<String> shortCodes, BiConsumer<String, String> consumer) {
+        Set<String> pending = new LinkedHashSet<>();
+        for (String shortCode : shortCodes) {
+            if (shortCode != null && !shortCode.isBlank())
+                pending.add(shortCode);
+        }
+
+        // Memory first: cached hits and cached misses are answered before any query runs.
+        // Expired links are reported like unknown ones
+        for (Map.Entry<String, ResolvedUrl> cached : this.resolveCache.getAllPresent(pending).entrySet()) {
+            consumer.accept(cached.getKey(), liveUrl(cached.getValue()));
+            pending.remove(cached.getKey());
+        }
+        for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+            String shortCode = it.next();
+            if (!this.mightExist(shortCode)) {
+                consumer.accept(shortCode, null);
+                it.remove();
+                continue;
+            }
+            ResolvedUrl snapshotted = this.snapshotResolver.find(shortCode);
+            if (snapshotted != null && !snapshotted.isExpired()) {
+                consumer.accept(shortCode, snapshotted.longUrl());
+                it.remove();
             }
         }
-        
-        return null;
-     }
+
+        for (List<String> chunk : chunks(pending)) {
+            Map<String, ResolvedUrl> longUrls = new HashMap<>(this.urlLookupService.findLongUrls(chunk));
+            List<String> missing = new ArrayList<>();
+            for (String shortCode : chunk) {
+                if (!longUrls.containsKey(shortCode))
+                    missing.add(shortCode);
+            }
+            // Same lag fallback as the single-code path, one query for all replica misses
+            if (!missing.isEmpty())
+                longUrls.putAll(this.urlLookupService.findLongUrlsOnMaster(missing));
+
+            for (String shortCode : chunk) {
+                ResolvedUrl stored = longUrls.get(shortCode);
+                if (stored != null) {
+                    this.resolveCache.put(shortCode, stored);
+                } else {
+                    this.shortCodeFilter.recordFalsePositive();
+                    this.resolveCache.putMissing(shortCode);
+                }
+                consumer.accept(shortCode, stored != null ? liveUrl(stored) : null);
+            }
+        }
+    }
+
+    private static String liveUrl(ResolvedUrl resolved) {
+        return resolved.isLive() ? resolved.longUrl() : null;
+    }
 
      @Override
-    public String getShortCode(String oUrl) {
+    public String getShortCode(String oUrl, Duration ttl) {
         if (oUrl == null || oUrl.isEmpty() || oUrl.isBlank()) 
             return null;
         
-        String normalizedUrl = normalizer.normalize(oUrl);
+        Instant expiresAt = expiresAt(ttl);
+        String normalizedUrl = this.normalize(oUrl);
+        String urlHash = this.hash(normalizedUrl);
+        return this.createUrlMapping(normalizedUrl, urlHash, expiresAt);
+    }
+
+    @Override
+    public List<BatchUrlItem> getShortCodes(List<String> urls, Duration ttl) {
+        Instant expiresAt = expiresAt(ttl);
+        // Normalise and hash in parallel; every slot keeps the position of its input URL
+        PreparedUrl[] prepared = new PreparedUrl[urls.size()];
+        IntStream.range(0, urls.size()).parallel().forEach(i -> prepared[i] = this.prepare(urls.get(i)));
+
+        Set<String> hashes = new LinkedHashSet<>();
+        for (PreparedUrl url : prepared) {
+            if (url.error() == null)
+                hashes.add(url.urlHash());
+        }
+
+        Map<String, StoredShortCode> shortCodes = new HashMap<>();
+        for (List<String> chunk : chunks(hashes)) {
+            shortCodes.putAll(this.urlLookupService.findShortCodesByHashes(chunk));
+        }
+
+        // One new code per distinct unknown hash, all inserted as a single JDBC batch
+        Map<String, String> newShortCodes = new LinkedHashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (PreparedUrl url : prepared) {
+            if (url.error() == null && !shortCodes.containsKey(url.urlHash()) && !newShortCodes.containsKey(url.urlHash())) {
+                String shortCode = this.shortCodeGenerator.nextShortCode();
+                newShortCodes.put(url.urlHash(), shortCode);
+                rows.add(new Object[] { shortCode, url.normalizedUrl(), url.urlHash() });
+            }
+        }
+        this.urlMappingWriter.insertIgnoreBatch(rows, expiresAt);
+
+        // Skipped rows lost a race to another writer or hit a taken random code; read back what is stored
+        Map<String, StoredShortCode> storedShortCodes = new HashMap<>();
+        for (List<String> chunk : chunks(newShortCodes.keySet()))
+            storedShortCodes.putAll(this.urlMappingWriter.findShortCodesByHashes(chunk));
+        Set<String> insertedShortCodes = new HashSet<>();
+        for (Map.Entry<String, String> entry : newShortCodes.entrySet()) {
+            StoredShortCode stored = storedShortCodes.get(entry.getKey());
+            if (stored != null && entry.getValue().equals(stored.shortCode())) {
+                this.shortCodeFilter.add(stored.shortCode());
+                this.recentWriteTracker.recordWrite(stored.shortCode());
+                insertedShortCodes.add(stored.shortCode());
+            }
+            if (stored != null)
+                shortCodes.put(entry.getKey(), stored);
+        }
+
+        // Codes that already existed must live at least as long as this request asks for. Only those
+        // stored with a shorter expiry are updated; plain re-shortens of permanent links cost no write
+        Map<String, String> extendedHashes = new HashMap<>();
+        for (Map.Entry<String, StoredShortCode> entry : shortCodes.entrySet()) {
+            StoredShortCode stored = entry.getValue();
+            if (!insertedShortCodes.contains(stored.shortCode()) && !stored.outlives(expiresAt))
+                extendedHashes.put(stored.shortCode(), entry.getKey());
+        }
+        Set<String> extendedShortCodes = extendedHashes.keySet();
+        int stillStored = 0;
+        for (List<String> chunk : chunks(extendedShortCodes))
+            stillStored += this.urlMappingWriter.extendExpiry(chunk, expiresAt);
+        if (stillStored < extendedShortCodes.size()) {
+            // The sweeper purged expired rows since they were read; their URLs are inserted again below
+            Map<String, StoredShortCode> remaining = new HashMap<>();
+            for (List<String> chunk : chunks(extendedHashes.values()))
+                remaining.putAll(this.urlMappingWriter.findShortCodesByHashes(chunk));
+            for (String urlHash : extendedHashes.values()) {
+                if (!remaining.containsKey(urlHash))
+                    shortCodes.remove(urlHash);
+            }
+        }
+
+        List<BatchUrlItem> results = new ArrayList<>(prepared.length);
+        for (PreparedUrl url : prepared) {
+            if (url.error() != null) {
+                results.add(BatchUrlItem.failure(url.url(), url.error()));
+                continue;
+            }
+            StoredShortCode stored = shortCodes.get(url.urlHash());
+            String shortCode;
+            if (stored == null) {
+                // Random code clash inside the batch insert, or a row purged before its expiry was
+                // extended; fall back to the single-URL path, which leaves the code live for at least
+                // the requested time
+                shortCode = this.createUrlMapping(url.normalizedUrl(), url.urlHash(), expiresAt);
+                shortCodes.put(url.urlHash(), new StoredShortCode(shortCode, expiresAt));
+            } else {
+                shortCode = stored.shortCode();
+                if (insertedShortCodes.contains(shortCode)) {
+                    this.resolveCache.put(shortCode, ResolvedUrl.of(url.normalizedUrl(), expiresAt));
+                } else if (extendedShortCodes.contains(shortCode)) {
+                    // The new expiry may be longer than requested by a concurrent writer; the next resolve reads it back
+                    this.resolveCache.invalidate(shortCode);
+                }
+            }
+            results.add(BatchUrlItem.success(url.url(), shortCode));
+        }
+        logger.debug("Shortened batch of {} URLs ({} new)", prepared.length, rows.size());
+        return results;
+    }
+
+    private PreparedUrl prepare(String url) {
+        if (url == null || url.isBlank())
+            return new PreparedUrl(url, null, null, "URL is required");
+        try {
+            String normalizedUrl = this.normalize(url);
+            return new PreparedUrl(url, normalizedUrl, this.hash(normalizedUrl), null);
+        } catch (IllegalArgumentException e) {
+            return new PreparedUrl(url, null, null, e.getMessage());
+        }
+    }
+
+    private String normalize(String url) {
+        long started = System.nanoTime();
+        boolean accepted = false;
+        try {
+            String normalizedUrl = normalizer.normalize(url);
+            accepted = true;
+            return normalizedUrl;
+        } finally {
+            this.stageTimers.recordNormalize(started, accepted);
+        }
+    }
+
+    private String hash(String normalizedUrl) {
+        long started = System.nanoTime();
         String urlHash = UrlUtils.hashUrl(normalizedUrl);
-        String savedShortCode = this.getSavedShortCode(urlHash);
-        
-        if (savedShortCode == null || savedShortCode.isEmpty() || savedShortCode.isBlank())  
-            return this.createUrlMapping(normalizedUrl, urlHash);
-        
-        return savedShortCode;
+        this.stageTimers.recordHash(started);
+        return urlHash;
     }
-    
-    @Transactional(readOnly = true)
-    private String getSavedShortCode(String urlHash) {
-        Optional<String> shortCode = this.urlRepository.findShortCodeByLongUrlHash(urlHash);
-        
-        if (shortCode.isPresent())  {
-            logger.info("Retrieved Short Code {} for URL hash : {}", shortCode.get(), urlHash);    
-            return shortCode.get();
-        } else {
-            logger.info("No Short Code found for URL hash : {}", urlHash);   
-        }     
-        
-        return null;
+
+    private static List<List<String>> chunks(Collection<String> values) {
+        List<String> list = new ArrayList<>(values);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += IN_CLAUSE_CHUNK_SIZE)
+            chunks.add(list.subList(from, Math.min(list.size(), from + IN_CLAUSE_CHUNK_SIZE)));
+        return chunks;
+    }
+
+    private record PreparedUrl(String url, String normalizedUrl, String urlHash, String error) {}
+
+    private static Instant expiresAt(Duration ttl) {
+        if (ttl == null)
+            return null;
+        if (ttl.isNegative() || ttl.isZero())
+            throw new IllegalArgumentException("TTL must be positive");
+        return Instant.now().plus(ttl);
     }
 
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    private String createUrlMapping(String normalizedUrl, String urlHash) {
+    private String createUrlMapping(String normalizedUrl, String urlHash, Instant expiresAt) {
         if (normalizedUrl == null || normalizedUrl.isBlank() || normalizedUrl.isEmpty()) 
             return null;
             
-        // Generate and try to insert with retry
+        // Insert first; the unique hash key reports an already shortened URL. Only random
+        // short codes can clash with another URL's code, in which case a new one is tried.
         int attempts = 0;
-        while (attempts < 5) {
-            String shortCode = UrlUtils.generateShortCode();
-            logger.info("Generated new Short Code {} for URL : {}",shortCode, normalizedUrl);
-            try {
-                UrlMapping newMapping = new UrlMapping(shortCode, normalizedUrl, urlHash);
-                urlRepository.save(newMapping);
-                logger.info("New URL Mapping saved : {} ", newMapping.toString());
-                return shortCode;
-            } catch (DataIntegrityViolationException e) {
-                // Short code collision - try again
-                attempts++;
-                if (attempts >= 5) {
-                    throw new RuntimeException("Failed to generate unique short code after 5 attempts");
+        while (attempts < MAX_INSERT_ATTEMPTS) {
+            String shortCode = this.shortCodeGenerator.nextShortCode();
+            long started = System.nanoTime();
+            StoredShortCode stored = this.urlMappingWriter.insertOrGetShortCode(shortCode, normalizedUrl, urlHash, expiresAt);
+            String storedShortCode = stored != null ? stored.shortCode() : null;
+            this.stageTimers.recordInsert(started, storedShortCode == null ? InsertOutcome.COLLISION
+                : storedShortCode.equals(shortCode) ? InsertOutcome.CREATED : InsertOutcome.EXISTING);
+            if (storedShortCode != null) {
+                if (storedShortCode.equals(shortCode)) {
+                    logger.debug("New URL Mapping saved : {}", shortCode);
+                    this.shortCodeFilter.add(shortCode);
+                    this.recentWriteTracker.recordWrite(shortCode);
+                    // Overwrites any negative entry cached for this code before it existed
+                    this.resolveCache.put(shortCode, ResolvedUrl.of(normalizedUrl, expiresAt));
+                } else {
+                    logger.debug("Retrieved Short Code {} for URL hash : {}", storedShortCode, urlHash);
+                    // An expiring link is kept alive at least as long as this request asks for
+                    if (!stored.outlives(expiresAt)) {
+                        if (this.urlMappingWriter.extendExpiry(List.of(storedShortCode), expiresAt) == 0) {
+                            // Purged by the expiry sweeper since the insert found it; the URL can be inserted again
+                            attempts++;
+                            continue;
+                        }
+                        this.resolveCache.invalidate(storedShortCode);
+                    }
                 }
+                return storedShortCode;
             }
+            attempts++;
+            logger.debug("Short Code {} already taken by another URL, attempt {}", shortCode, attempts);
         }
-        throw new RuntimeException("Unexpected error in short code generation");
+        throw new RuntimeException("Failed to generate unique short code after " + MAX_INSERT_ATTEMPTS + " attempts");
     }
 }
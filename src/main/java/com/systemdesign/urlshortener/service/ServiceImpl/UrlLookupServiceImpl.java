@@ -0,0 +1,72 @@
+package com.systemdesign.urlshortener.service.ServiceImpl;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+import com.systemdesign.urlshortener.model.StoredShortCode;
+import com.systemdesign.urlshortener.repository.UrlMappingWriter;
+import com.systemdesign.urlshortener.repository.UrlRepository;
+import com.systemdesign.urlshortener.service.UrlLookupService;
+
+@Service
+public class UrlLookupServiceImpl implements UrlLookupService {
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private UrlMappingWriter urlMappingWriter;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResolvedUrl findLongUrl(String shortCode) {
+        return this.getMappedUrl(shortCode);
+    }
+
+    @Override
+    @Transactional
+    public ResolvedUrl findLongUrlOnMaster(String shortCode) {
+        return this.getMappedUrl(shortCode);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, ResolvedUrl> findLongUrls(Collection<String> shortCodes) {
+        return this.getMappedUrls(shortCodes);
+    }
+
+    @Override
+    @Transactional
+    public Map<String, ResolvedUrl> findLongUrlsOnMaster(Collection<String> shortCodes) {
+        return this.getMappedUrls(shortCodes);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, StoredShortCode> findShortCodesByHashes(Collection<String> urlHashes) {
+        // JdbcTemplate joins this read-only transaction, so the query runs on its replica connection
+        return this.urlMappingWriter.findShortCodesByHashes(urlHashes);
+    }
+
+    private Map<String, ResolvedUrl> getMappedUrls(Collection<String> shortCodes) {
+        Map<String, ResolvedUrl> longUrls = new HashMap<>();
+        if (!shortCodes.isEmpty()) {
+            for (UrlRepository.ShortCodeLongUrl mapping : this.urlRepository.findLongUrlsByShortCodeIn(shortCodes))
+                longUrls.put(mapping.getShortCode(), ResolvedUrl.of(mapping.getLongUrl(), mapping.getExpiresAt()));
+        }
+        return longUrls;
+    }
+
+    private ResolvedUrl getMappedUrl(String shortCode) {
+        // One projection query: no exists() round-trip, no managed entity to track or dirty-check
+        return this.urlRepository.findLongUrlByShortCode(shortCode)
+            .map(mapping -> ResolvedUrl.of(mapping.getLongUrl(), mapping.getExpiresAt()))
+            .orElse(null);
+    }
+}
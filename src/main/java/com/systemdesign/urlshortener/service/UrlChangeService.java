@@ -1,11 +1,33 @@
 package com.systemdesign.urlshortener.service;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
 import org.springframework.stereotype.Service;
 
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+import com.systemdesign.urlshortener.model.dto.BatchUrlItem;
+
 @Service
 public interface UrlChangeService {
 
-    String getShortCode(String url);
+    // ttl is null for links that never expire
+    String getShortCode(String url, Duration ttl);
 
+    // Long URL of a live link; null when the code is unknown or the link has expired
     String getOriginalUrl(String shortUrl);
+
+    // Tells unknown codes (NOT_FOUND) apart from expired links (found, isExpired)
+    ResolvedUrl resolveShortCode(String shortCode);
+
+    // Same lookup as resolveShortCode without counting a click, for the startup warm-up
+    ResolvedUrl peekShortCode(String shortCode);
+
+    // Results are in the same order as the input URLs
+    List<BatchUrlItem> getShortCodes(List<String> urls, Duration ttl);
+
+    // Hands each code to the consumer as soon as it is resolved (long URL is null when unknown)
+    void getOriginalUrls(Collection<String> shortCodes, BiConsumer<String, String> consumer);
 }
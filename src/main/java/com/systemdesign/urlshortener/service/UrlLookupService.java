@@ -0,0 +1,29 @@
+package com.systemdesign.urlshortener.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+import com.systemdesign.urlshortener.model.StoredShortCode;
+
+/**
+ * Read-only lookups for the resolve path. Lives behind its own Spring proxy so the
+ * transactional read-only flag actually applies and the routing datasource can send
+ * the query to a replica.
+ */
+public interface UrlLookupService {
+
+    // Resolves against the replica pool; null when the code does not exist
+    ResolvedUrl findLongUrl(String shortCode);
+
+    // Resolves against the master, for codes the replicas may not have received yet
+    ResolvedUrl findLongUrlOnMaster(String shortCode);
+
+    // Bulk variants: short code -> long URL and expiry for the codes that exist
+    Map<String, ResolvedUrl> findLongUrls(Collection<String> shortCodes);
+
+    Map<String, ResolvedUrl> findLongUrlsOnMaster(Collection<String> shortCodes);
+
+    // Duplicate detection against the replica pool: hex URL hash -> stored short code and expiry
+    Map<String, StoredShortCode> findShortCodesByHashes(Collection<String> urlHashes);
+}
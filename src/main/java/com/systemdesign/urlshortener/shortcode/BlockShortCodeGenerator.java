@@ -0,0 +1,76 @@
+package com.systemdesign.urlshortener.shortcode;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collision-free generator: leases blocks of IDs from the master through an
+ * {@link IdBlockAllocator} and turns each ID into a code with a keyed permutation.
+ *
+ * Handing out an ID is a single atomic increment. The lock is only taken by the thread
+ * that finds the current block exhausted, once per {@code blockSize} codes.
+ */
+public class BlockShortCodeGenerator implements ShortCodeGenerator {
+
+    private final IdBlockAllocator allocator;
+    private final ShortCodePermutation permutation;
+    private final int blockSize;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    public BlockShortCodeGenerator(IdBlockAllocator allocator, ShortCodePermutation permutation, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive but was " + blockSize);
+        }
+        this.allocator = allocator;
+        this.permutation = permutation;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String nextShortCode() {
+        return permutation.encode(nextId());
+    }
+
+    long nextId() {
+        while (true) {
+            Block block = current.get();
+            long id = block.cursor.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refill(block);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Another thread may have replaced the block while this one waited
+            if (current.get() == exhausted) {
+                long start = allocator.allocate(blockSize);
+                if (start + blockSize > permutation.space()) {
+                    throw new IllegalStateException("Short code space of " + permutation.space() + " IDs is exhausted");
+                }
+                current.set(new Block(start, start + blockSize));
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+
+        static final Block EMPTY = new Block(0, 0);
+
+        final AtomicLong cursor;
+        final long end;
+
+        Block(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
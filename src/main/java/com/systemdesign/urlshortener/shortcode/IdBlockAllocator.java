@@ -0,0 +1,14 @@
+package com.systemdesign.urlshortener.shortcode;
+
+/**
+ * Leases ranges of the global ID sequence to one application instance.
+ */
+@FunctionalInterface
+public interface IdBlockAllocator {
+
+    /**
+     * Reserves {@code blockSize} consecutive IDs and returns the first one. IDs handed out
+     * by different calls - on any instance - never overlap.
+     */
+    long allocate(int blockSize);
+}
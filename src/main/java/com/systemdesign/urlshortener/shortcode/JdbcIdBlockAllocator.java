@@ -0,0 +1,50 @@
+package com.systemdesign.urlshortener.shortcode;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Leases ID blocks from a single-row counter table on the master. The row lock is held
+ * only for the two statements of the lease, in its own transaction, never for the
+ * caller's surrounding transaction.
+ */
+public class JdbcIdBlockAllocator implements IdBlockAllocator {
+
+    private static final String SEQUENCE_NAME = "short_code";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean initialized;
+
+    public JdbcIdBlockAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long allocate(int blockSize) {
+        if (!initialized) {
+            createSequence();
+        }
+        return transactionTemplate.execute(status -> {
+            Long next = jdbcTemplate.queryForObject(
+                "SELECT next_value FROM short_code_sequence WHERE name = ? FOR UPDATE", Long.class, SEQUENCE_NAME);
+            jdbcTemplate.update("UPDATE short_code_sequence SET next_value = ? WHERE name = ?", next + blockSize, SEQUENCE_NAME);
+            return next;
+        });
+    }
+
+    private void createSequence() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS short_code_sequence ("
+                + "name VARCHAR(32) NOT NULL PRIMARY KEY, "
+                + "next_value BIGINT NOT NULL)");
+            jdbcTemplate.update("INSERT IGNORE INTO short_code_sequence (name, next_value) VALUES (?, 0)", SEQUENCE_NAME);
+        });
+        initialized = true;
+    }
+}
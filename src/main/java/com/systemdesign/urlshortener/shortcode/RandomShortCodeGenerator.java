@@ -0,0 +1,15 @@
+package com.systemdesign.urlshortener.shortcode;
+
+import com.systemdesign.urlshortener.utils.UrlUtils;
+
+/**
+ * The original strategy: uniformly random 6-character codes. Collisions are possible
+ * and are resolved by the caller retrying the insert.
+ */
+public class RandomShortCodeGenerator implements ShortCodeGenerator {
+
+    @Override
+    public String nextShortCode() {
+        return UrlUtils.generateShortCode();
+    }
+}
@@ -0,0 +1,9 @@
+package com.systemdesign.urlshortener.shortcode;
+
+/**
+ * Source of new short codes for {@code UrlChangeServiceImpl.createUrlMapping}.
+ */
+public interface ShortCodeGenerator {
+
+    String nextShortCode();
+}
@@ -0,0 +1,83 @@
+package com.systemdesign.urlshortener.shortcode;
+
+import com.systemdesign.urlshortener.utils.Base62;
+
+/**
+ * Keyed bijection over [0, 62^length) followed by fixed-width base62 encoding, so
+ * consecutive counter values map to unrelated-looking codes without ever colliding.
+ *
+ * The value is split into a high and a low base62 half and run through a few rounds of
+ * an unbalanced Feistel network with modular addition; every round is invertible, so the
+ * whole permutation is too.
+ */
+public class ShortCodePermutation {
+
+    private static final int ROUNDS = 4;
+
+    private final int length;
+    private final long space;
+    private final long highRadix;
+    private final long lowRadix;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public ShortCodePermutation(int length, long key) {
+        if (length < 2 || length > 10) {
+            throw new IllegalArgumentException("Short code length must be between 2 and 10 but was " + length);
+        }
+        this.length = length;
+        this.space = Base62.pow(length);
+        this.lowRadix = Base62.pow((length + 1) / 2);
+        this.highRadix = space / lowRadix;
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = mix(key + (i + 1) * 0x9E3779B97F4A7C15L);
+        }
+    }
+
+    public long space() {
+        return space;
+    }
+
+    public long permute(long id) {
+        if (id < 0 || id >= space) {
+            throw new IllegalArgumentException("ID " + id + " is outside the short code space of " + space);
+        }
+        long high = id / lowRadix;
+        long low = id % lowRadix;
+        for (int round = 0; round < ROUNDS; round++) {
+            if ((round & 1) == 0) {
+                high = Math.floorMod(high + round(low, roundKeys[round]), highRadix);
+            } else {
+                low = Math.floorMod(low + round(high, roundKeys[round]), lowRadix);
+            }
+        }
+        return high * lowRadix + low;
+    }
+
+    public long invert(long permuted) {
+        long high = permuted / lowRadix;
+        long low = permuted % lowRadix;
+        for (int round = ROUNDS - 1; round >= 0; round--) {
+            if ((round & 1) == 0) {
+                high = Math.floorMod(high - round(low, roundKeys[round]), highRadix);
+            } else {
+                low = Math.floorMod(low - round(high, roundKeys[round]), lowRadix);
+            }
+        }
+        return high * lowRadix + low;
+    }
+
+    public String encode(long id) {
+        return Base62.encode(permute(id), length);
+    }
+
+    private static long round(long half, long key) {
+        return mix(half ^ key) & Long.MAX_VALUE;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,85 @@
+package com.systemdesign.urlshortener.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A file region mapped as consecutive MappedByteBuffers, since a single mapping is limited
+ * to 2 GB. The segment size is a multiple of 8, so aligned longs never straddle two segments;
+ * unaligned values and byte runs may, and are then assembled piecewise.
+ */
+final class MappedSegments {
+
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private final MappedByteBuffer[] segments;
+    private final int segmentShift;
+    private final long segmentMask;
+
+    MappedSegments(FileChannel channel, FileChannel.MapMode mode, long offset, long length, int segmentSize) throws IOException {
+        if (Integer.bitCount(segmentSize) != 1 || segmentSize < 8) {
+            throw new IllegalArgumentException("Segment size must be a power of two of at least 8: " + segmentSize);
+        }
+        int count = (int) ((length + segmentSize - 1) / segmentSize);
+        this.segments = new MappedByteBuffer[count];
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.segmentMask = segmentSize - 1;
+        for (int i = 0; i < count; i++) {
+            long start = (long) i * segmentSize;
+            MappedByteBuffer segment = channel.map(mode, offset + start, Math.min(segmentSize, length - start));
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            segments[i] = segment;
+        }
+    }
+
+    long getLong(long position) {
+        return segments[(int) (position >>> segmentShift)].getLong((int) (position & segmentMask));
+    }
+
+    void putLong(long position, long value) {
+        segments[(int) (position >>> segmentShift)].putLong((int) (position & segmentMask), value);
+    }
+
+    byte get(long position) {
+        return segments[(int) (position >>> segmentShift)].get((int) (position & segmentMask));
+    }
+
+    int getInt(long position) {
+        int index = (int) (position & segmentMask);
+        MappedByteBuffer segment = segments[(int) (position >>> segmentShift)];
+        if (index + 4 <= segment.limit()) {
+            return segment.getInt(index);
+        }
+        return (get(position) & 0xFF) | (get(position + 1) & 0xFF) << 8
+            | (get(position + 2) & 0xFF) << 16 | (get(position + 3) & 0xFF) << 24;
+    }
+
+    long getUnalignedLong(long position) {
+        int index = (int) (position & segmentMask);
+        MappedByteBuffer segment = segments[(int) (position >>> segmentShift)];
+        if (index + 8 <= segment.limit()) {
+            return segment.getLong(index);
+        }
+        return (getInt(position) & 0xFFFFFFFFL) | (long) getInt(position + 4) << 32;
+    }
+
+    void get(long position, byte[] target, int length) {
+        int copied = 0;
+        while (copied < length) {
+            long at = position + copied;
+            MappedByteBuffer segment = segments[(int) (at >>> segmentShift)];
+            int index = (int) (at & segmentMask);
+            int chunk = Math.min(length - copied, segment.limit() - index);
+            segment.get(index, target, copied, chunk);
+            copied += chunk;
+        }
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+}
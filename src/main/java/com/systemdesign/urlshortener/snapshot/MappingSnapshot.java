@@ -0,0 +1,163 @@
+package com.systemdesign.urlshortener.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+
+/**
+ * Read-only, memory-mapped short code -> long URL table written by {@link MappingSnapshotWriter}.
+ *
+ * Layout (little endian):
+ * <pre>
+ *   header   64 bytes: magic, version, entry count, slot count, max id, created at, data offset
+ *   slots    slot count x 8 bytes: 24-bit hash fingerprint | 40-bit record offset, 0 = empty
+ *   records  [code length: u8][code: ASCII][expires at: i64 epoch ms, 0 = never][url length: i32][url: UTF-8] ...
+ * </pre>
+ * The slot table is an open-addressing hash table with linear probing at a load factor of at
+ * most one half. A lookup touches one or two slots and, thanks to the fingerprint, usually only
+ * the matching record. All data lives in the page cache rather than on the heap; the only
+ * allocations per lookup are the returned ResolvedUrl, its String and the String's byte copy.
+ */
+public final class MappingSnapshot {
+
+    static final long MAGIC = 0x31504E534C5255L; // "URLSNP1"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+    static final long OFFSET_MASK = (1L << 40) - 1;
+
+    private final Path path;
+    private final MappedSegments data;
+    private final long entryCount;
+    private final long slotMask;
+    private final long maxId;
+    private final Instant createdAt;
+
+    private MappingSnapshot(Path path, MappedSegments data, long entryCount, long slotCount, long maxId, Instant createdAt) {
+        this.path = path;
+        this.data = data;
+        this.entryCount = entryCount;
+        this.slotMask = slotCount - 1;
+        this.maxId = maxId;
+        this.createdAt = createdAt;
+    }
+
+    public static MappingSnapshot open(Path path) throws IOException {
+        return open(path, MappedSegments.DEFAULT_SEGMENT_SIZE);
+    }
+
+    static MappingSnapshot open(Path path, int segmentSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getLong(0) != MAGIC) {
+                throw new IOException("Not a mapping snapshot: " + path);
+            }
+            if (header.getInt(8) != VERSION) {
+                throw new IOException("Unsupported mapping snapshot version " + header.getInt(8) + ": " + path);
+            }
+            long entryCount = header.getLong(16);
+            long slotCount = header.getLong(24);
+            long maxId = header.getLong(32);
+            long createdAt = header.getLong(40);
+            long dataOffset = header.getLong(48);
+            if (Long.bitCount(slotCount) != 1 || dataOffset != HEADER_SIZE + slotCount * Long.BYTES || dataOffset > channel.size()) {
+                throw new IOException("Corrupt mapping snapshot header: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedSegments data = new MappedSegments(channel, FileChannel.MapMode.READ_ONLY, 0, channel.size(), segmentSize);
+            return new MappingSnapshot(path, data, entryCount, slotCount, maxId, Instant.ofEpochMilli(createdAt));
+        }
+    }
+
+    /**
+     * Returns the long URL and expiry for a short code, or null when the snapshot does not
+     * contain it. Rows already expired at export time are left out of the snapshot.
+     */
+    public ResolvedUrl find(String shortCode) {
+        int length = shortCode.length();
+        if (length == 0 || length > 255) {
+            return null;
+        }
+        long hash = hash(shortCode);
+        long fingerprint = fingerprint(hash);
+        for (long slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            long entry = data.getLong(HEADER_SIZE + slot * Long.BYTES);
+            if (entry == 0) {
+                return null;
+            }
+            if (entry >>> 40 == fingerprint) {
+                long record = entry & OFFSET_MASK;
+                if (codeMatches(record, shortCode)) {
+                    long expiresAtAt = record + 1 + length;
+                    long urlAt = expiresAtAt + Long.BYTES;
+                    int urlLength = data.getInt(urlAt);
+                    byte[] url = new byte[urlLength];
+                    data.get(urlAt + Integer.BYTES, url, urlLength);
+                    return new ResolvedUrl(new String(url, StandardCharsets.UTF_8), data.getUnalignedLong(expiresAtAt));
+                }
+            }
+        }
+    }
+
+    private boolean codeMatches(long record, String shortCode) {
+        int length = shortCode.length();
+        if ((data.get(record) & 0xFF) != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (data.get(record + 1 + i) != shortCode.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long entryCount() {
+        return entryCount;
+    }
+
+    // Highest url_mappings.id included; rows created later are only found in the database
+    public long maxId() {
+        return maxId;
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    // FNV-1a over the chars followed by a murmur3 finalizer, so the low bits and the
+    // fingerprint bits are both well mixed
+    static long hash(String shortCode) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < shortCode.length(); i++) {
+            hash ^= shortCode.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    static long fingerprint(long hash) {
+        return hash >>> 40;
+    }
+
+    @Override
+    public String toString() {
+        return "MappingSnapshot[" + path + ", entries=" + entryCount + ", maxId=" + maxId + ", createdAt=" + createdAt + "]";
+    }
+}
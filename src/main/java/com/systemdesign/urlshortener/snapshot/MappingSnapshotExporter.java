@@ -0,0 +1,91 @@
+package com.systemdesign.urlshortener.snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Periodically dumps url_mappings (short_code -> long_url) into the snapshot file served by
+ * {@link MappingSnapshotResolver}. Enable it on one instance per shared snapshot location; the
+ * others pick up the new file on their next reload check.
+ *
+ * Rows are streamed from a replica in a read-only transaction, bounded by the highest id seen
+ * when the export starts, so a busy master is not involved and the export has a fixed end.
+ */
+@Component
+@ConditionalOnProperty(name = "app.snapshot.export.enabled", havingValue = "true")
+public class MappingSnapshotExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappingSnapshotExporter.class);
+
+    private static final String BOUNDS_SQL = "SELECT COUNT(*), COALESCE(MAX(id), 0) FROM url_mappings";
+
+    // Already expired rows are left out; they resolve through the database until the sweeper purges them
+    private static final String EXPORT_SQL =
+        "SELECT short_code, long_url, expires_at FROM url_mappings WHERE id <= ? AND (expires_at IS NULL OR expires_at > ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MappingSnapshotResolver resolver;
+
+    public MappingSnapshotExporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MappingSnapshotResolver resolver) {
+        if (!resolver.isEnabled()) {
+            throw new IllegalStateException("app.snapshot.export.enabled requires app.snapshot.path");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.resolver = resolver;
+    }
+
+    @Scheduled(initialDelayString = "${app.snapshot.export.initial-delay:PT1M}",
+        fixedDelayString = "${app.snapshot.export.interval:PT6H}")
+    public void export() {
+        long started = System.nanoTime();
+        long entries = readOnlyTransaction.execute(status -> exportTo(resolver.getPath()));
+        logger.info("Exported {} mappings to {} in {} ms", entries, resolver.getPath(), (System.nanoTime() - started) / 1_000_000);
+        resolver.reloadIfChanged();
+    }
+
+    private long exportTo(Path target) {
+        long[] bounds = jdbcTemplate.queryForObject(BOUNDS_SQL, (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) });
+        try (MappingSnapshotWriter writer = new MappingSnapshotWriter(target, bounds[0], bounds[1])) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // Connector/J streams rows one by one instead of buffering the whole result set;
+                // other drivers (H2 in the h2 profile) reject the negative fetch size
+                if ("MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                }
+                statement.setLong(1, bounds[1]);
+                statement.setTimestamp(2, Timestamp.from(Instant.now()));
+                return statement;
+            }, rs -> {
+                try {
+                    Timestamp expiresAt = rs.getTimestamp(3);
+                    writer.add(rs.getString(1), rs.getString(2), expiresAt != null ? expiresAt.getTime() : 0L);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.commit();
+            return writer.entryCount();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write mapping snapshot " + target, e);
+        }
+    }
+}
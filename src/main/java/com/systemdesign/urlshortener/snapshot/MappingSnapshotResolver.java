@@ -0,0 +1,96 @@
+package com.systemdesign.urlshortener.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Serves resolves from the memory-mapped mapping snapshot at app.snapshot.path, if one exists.
+ *
+ * The file is opened at startup, so an instance answers most redirects without touching MySQL
+ * from its first request, and is re-opened whenever the exporter (on this or another instance)
+ * replaces it. A code missing from the snapshot may simply be newer than it, so a miss here
+ * always falls through to the database.
+ */
+@Component
+public class MappingSnapshotResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappingSnapshotResolver.class);
+
+    private final Path path;
+    // Serializes reloads; not synchronized, which would pin a virtual thread during file I/O
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile MappingSnapshot snapshot;
+    private FileTime loadedModifiedTime;
+
+    public MappingSnapshotResolver(@Value("${app.snapshot.path:}") String path, MeterRegistry meterRegistry) {
+        this.path = path.isBlank() ? null : Path.of(path);
+        Gauge.builder("snapshot.entries", this, resolver -> resolver.snapshot != null ? resolver.snapshot.entryCount() : 0)
+            .description("Mappings in the loaded resolve snapshot")
+            .register(meterRegistry);
+        Gauge.builder("snapshot.age.seconds", this, MappingSnapshotResolver::ageSeconds)
+            .description("Seconds since the loaded resolve snapshot was exported, -1 without one")
+            .register(meterRegistry);
+        reloadIfChanged();
+    }
+
+    /**
+     * Returns the long URL and expiry from the snapshot, or null when there is no snapshot or
+     * the code is not in it.
+     */
+    public ResolvedUrl find(String shortCode) {
+        MappingSnapshot current = this.snapshot;
+        return current != null ? current.find(shortCode) : null;
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Scheduled(fixedDelayString = "${app.snapshot.reload-interval:PT1M}")
+    public void reloadIfChanged() {
+        if (path == null || !Files.isRegularFile(path)) {
+            return;
+        }
+        reloadLock.lock();
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(loadedModifiedTime)) {
+                return;
+            }
+            MappingSnapshot loaded = MappingSnapshot.open(path);
+            // The previous mapping is released once no in-flight lookup references it
+            this.snapshot = loaded;
+            this.loadedModifiedTime = modified;
+            logger.info("Loaded {}", loaded);
+        } catch (IOException e) {
+            logger.warn("Could not load mapping snapshot {}, keeping the current one", path, e);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private double ageSeconds() {
+        MappingSnapshot current = this.snapshot;
+        return current != null ? Duration.between(current.createdAt(), Instant.now()).toSeconds() : -1;
+    }
+}
@@ -0,0 +1,160 @@
+package com.systemdesign.urlshortener.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams mappings into a {@link MappingSnapshot} file in one pass. Records are appended
+ * behind the slot table while the slot table itself is filled through a writable mapping,
+ * so memory use does not grow with the number of rows.
+ *
+ * Everything is written to a temporary file next to the target, which replaces the target
+ * atomically on {@link #commit()}; readers never see a partial snapshot.
+ */
+public final class MappingSnapshotWriter implements Closeable {
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final MappedSegments slots;
+    private final long slotCount;
+    private final long maxEntries;
+    private final long maxId;
+    private final long dataOffset;
+    private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    // Offset of the next record, and of the first byte still sitting in the buffer
+    private long position;
+    private long flushedTo;
+    private long entryCount;
+    private boolean committed;
+
+    /**
+     * @param expectedEntries rows about to be added; the table holds up to 1.5x this many
+     * @param maxId highest url_mappings.id covered by the snapshot
+     */
+    public MappingSnapshotWriter(Path target, long expectedEntries, long maxId) throws IOException {
+        this(target, expectedEntries, maxId, MappedSegments.DEFAULT_SEGMENT_SIZE);
+    }
+
+    MappingSnapshotWriter(Path target, long expectedEntries, long maxId, int segmentSize) throws IOException {
+        this.target = target.toAbsolutePath();
+        this.slotCount = Long.highestOneBit(Math.max(16, expectedEntries * 2 - 1)) << 1;
+        this.maxEntries = slotCount * 3 / 4;
+        this.maxId = maxId;
+        this.dataOffset = MappingSnapshot.HEADER_SIZE + slotCount * Long.BYTES;
+        Files.createDirectories(this.target.getParent());
+        this.temporary = Files.createTempFile(this.target.getParent(), this.target.getFileName().toString(), ".tmp");
+        this.channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Maps the (zero-filled) slot table; records are written with plain channel writes
+        this.slots = new MappedSegments(channel, FileChannel.MapMode.READ_WRITE, MappingSnapshot.HEADER_SIZE,
+            slotCount * Long.BYTES, segmentSize);
+        this.position = dataOffset;
+        this.flushedTo = dataOffset;
+    }
+
+    /**
+     * @param expiresAtMillis epoch millis the link expires at, 0 for never
+     */
+    public void add(String shortCode, String longUrl, long expiresAtMillis) throws IOException {
+        int codeLength = shortCode.length();
+        if (codeLength == 0 || codeLength > 255) {
+            throw new IllegalArgumentException("Short code length out of range: " + shortCode);
+        }
+        if (entryCount == maxEntries) {
+            throw new IllegalStateException("Snapshot table is full at " + maxEntries + " entries");
+        }
+
+        long hash = MappingSnapshot.hash(shortCode);
+        long slot = hash & (slotCount - 1);
+        while (slots.getLong(slot * Long.BYTES) != 0) {
+            slot = (slot + 1) & (slotCount - 1);
+        }
+        slots.putLong(slot * Long.BYTES, MappingSnapshot.fingerprint(hash) << 40 | position);
+
+        byte[] url = longUrl.getBytes(StandardCharsets.UTF_8);
+        ensureRemaining(1 + codeLength + Long.BYTES + Integer.BYTES);
+        buffer.put((byte) codeLength);
+        for (int i = 0; i < codeLength; i++) {
+            char c = shortCode.charAt(i);
+            if (c > 0x7F) {
+                throw new IllegalArgumentException("Short code is not ASCII: " + shortCode);
+            }
+            buffer.put((byte) c);
+        }
+        buffer.putLong(expiresAtMillis);
+        buffer.putInt(url.length);
+        for (int written = 0; written < url.length; ) {
+            ensureRemaining(1);
+            int chunk = Math.min(buffer.remaining(), url.length - written);
+            buffer.put(url, written, chunk);
+            written += chunk;
+        }
+        position += 1 + codeLength + Long.BYTES + Integer.BYTES + url.length;
+        if (position > MappingSnapshot.OFFSET_MASK) {
+            throw new IllegalStateException("Snapshot exceeds the addressable record area");
+        }
+        entryCount++;
+    }
+
+    public long entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Writes the header, syncs the file and moves it over the target.
+     */
+    public void commit() throws IOException {
+        flush();
+        slots.force();
+        ByteBuffer header = ByteBuffer.allocate(MappingSnapshot.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MappingSnapshot.MAGIC)
+            .putInt(MappingSnapshot.VERSION)
+            .putInt(0)
+            .putLong(entryCount)
+            .putLong(slotCount)
+            .putLong(maxId)
+            .putLong(System.currentTimeMillis())
+            .putLong(dataOffset)
+            .flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+        channel.close();
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushedTo += channel.write(buffer, flushedTo);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,48 @@
+package com.systemdesign.urlshortener.utils;
+
+/**
+ * Fixed-width base62 encoding over the short code alphabet.
+ */
+public final class Base62 {
+
+    public static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    public static final int RADIX = 62;
+
+    private static final char[] DIGITS = ALPHABET.toCharArray();
+
+    private Base62() {}
+
+    /**
+     * Encodes a non-negative value as exactly {@code width} base62 digits, most significant first.
+     * The value must be below 62^width.
+     */
+    public static String encode(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) (value % RADIX)];
+            value /= RADIX;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Encodes the low bits of an unsigned 64-bit random value as {@code width} base62 digits.
+     */
+    public static String encodeUnsigned(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) Long.remainderUnsigned(value, RADIX)];
+            value = Long.divideUnsigned(value, RADIX);
+        }
+        return new String(chars);
+    }
+
+    public static long pow(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = Math.multiplyExact(result, RADIX);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,580 @@
+package com.systemdesign.urlshortener.utils;
+
+import java.util.Arrays;
+
+import com.systemdesign.urlshortener.utils.NormalizationStrategy.NormalizationFeature;
+
+/**
+ * Single-pass, char-array implementation of {@link UrlNormalizer#normalizeWithUri(String)}.
+ *
+ * It reproduces the URI based path exactly - including its quirks: path, query and fragment are
+ * taken decoded (as {@code URI.getPath()} etc. return them) and then URL-decoded once more, query
+ * parameters come out grouped by key in key order, and components are re-encoded the way
+ * {@code URLEncoder} plus the %20 / ~ / %2A fix-ups do.
+ *
+ * Only a safe ASCII subset is handled here: plain host names, numeric ports, no user info, and
+ * percent escapes that decode to ASCII. For anything else {@link #normalize(String)} returns
+ * null and the caller falls back to the URI implementation, which also owns every error message.
+ */
+final class FastUrlNormalizer {
+
+    private static final int MAX_LENGTH = 8192;
+    private static final int MAX_PARAMS = 1024;
+    private static final int BAIL = -1;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // Character classes of java.net.URI, restricted to ASCII
+    private static final boolean[] PATH_CHARS = new boolean[128];
+    private static final boolean[] URIC_CHARS = new boolean[128];
+
+    static {
+        String alphanum = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        String unreserved = alphanum + "-_.!~*'()";
+        mark(PATH_CHARS, unreserved + ":@&=+$,;/");
+        mark(URIC_CHARS, unreserved + ";/?:@&=+$,[]");
+    }
+
+    private static final ScratchPool<Buffers> BUFFERS = new ScratchPool<>(Buffers::new);
+
+    private final boolean forceHttps;
+    private final boolean removeWww;
+    private final boolean decodeUrlEncoded;
+    private final boolean removeTrackingParams;
+    private final boolean sortQueryParameters;
+    private final boolean removeFragments;
+    private final boolean preserveHashbang;
+    private final StrategyDescriptor descriptor;
+    private final TrackingParameterMatcher trackingParameters;
+
+    FastUrlNormalizer(StrategyDescriptor descriptor) {
+        this.descriptor = descriptor;
+        this.forceHttps = descriptor.has(NormalizationFeature.HTTPS_FORCING);
+        this.removeWww = descriptor.has(NormalizationFeature.WWW_REMOVAL);
+        this.decodeUrlEncoded = descriptor.has(NormalizationFeature.URL_DECODING);
+        this.removeTrackingParams = !descriptor.trackingParameters().isEmpty();
+        this.sortQueryParameters = descriptor.has(NormalizationFeature.QUERY_SORTING);
+        this.removeFragments = descriptor.has(NormalizationFeature.FRAGMENT_REMOVAL);
+        this.preserveHashbang = descriptor.has(NormalizationFeature.HASHBANG_PRESERVATION);
+        this.trackingParameters = descriptor.trackingParameters();
+    }
+
+    /**
+     * Normalizes the URL, or returns null when it falls outside the subset handled here.
+     */
+    String normalize(String url) {
+        int n = url.length();
+        if (n == 0 || n > MAX_LENGTH) {
+            return null;
+        }
+        Buffers buffers = BUFFERS.acquire();
+        try {
+            return normalize(url, n, buffers);
+        } finally {
+            BUFFERS.release(buffers);
+        }
+    }
+
+    private String normalize(String url, int n, Buffers buffers) {
+        buffers.ensureCapacity(n);
+        char[] in = buffers.input;
+        char[] out = buffers.output;
+        url.getChars(0, n, in, 0);
+
+        // Scheme - mirrors UrlNormalizer.ensureScheme
+        int o;
+        int authorityStart;
+        boolean http;
+        boolean https;
+        if (url.contains("://")) {
+            int schemeEnd = scanScheme(in, n);
+            if (schemeEnd < 0 || schemeEnd + 2 >= n || in[schemeEnd + 1] != '/' || in[schemeEnd + 2] != '/') {
+                return null;
+            }
+            for (int i = 0; i < schemeEnd; i++) {
+                out[i] = toLowerAscii(in[i]);
+            }
+            o = schemeEnd;
+            if (!descriptor.isSchemeAllowed(out, 0, o)) {
+                return null;
+            }
+            http = regionEquals(out, 0, o, "http");
+            https = regionEquals(out, 0, o, "https");
+            if (forceHttps && http) {
+                out[o++] = 's';
+                http = false;
+                https = true;
+            }
+            authorityStart = schemeEnd + 3;
+        } else if (url.indexOf('.') >= 0 && url.indexOf(' ') < 0) {
+            o = append(out, 0, "https");
+            if (!descriptor.isSchemeAllowed(out, 0, o)) {
+                return null;
+            }
+            http = false;
+            https = true;
+            authorityStart = 0;
+        } else {
+            return null;
+        }
+        o = append(out, o, "://");
+
+        // Authority: host[:port]; user info, IPv6 and IPv4 literals are left to the URI path
+        int authorityEnd = authorityStart;
+        while (authorityEnd < n && in[authorityEnd] != '/' && in[authorityEnd] != '?' && in[authorityEnd] != '#') {
+            authorityEnd++;
+        }
+        int hostEnd = authorityStart;
+        while (hostEnd < authorityEnd && in[hostEnd] != ':') {
+            hostEnd++;
+        }
+        if (!isHostName(in, authorityStart, hostEnd)) {
+            return null;
+        }
+        int hostStart = authorityStart;
+        if (removeWww && hostEnd - hostStart > 4 && startsWithWww(in, hostStart)) {
+            hostStart += 4;
+        }
+        for (int i = hostStart; i < hostEnd; i++) {
+            out[o++] = toLowerAscii(in[i]);
+        }
+
+        if (hostEnd < authorityEnd) {
+            int digits = authorityEnd - hostEnd - 1;
+            if (digits < 1 || digits > 5) {
+                return null;
+            }
+            int port = 0;
+            for (int i = hostEnd + 1; i < authorityEnd; i++) {
+                char c = in[i];
+                if (c < '0' || c > '9') {
+                    return null;
+                }
+                port = port * 10 + (c - '0');
+            }
+            if (!(http && port == 80) && !(https && port == 443)) {
+                out[o++] = ':';
+                o = append(out, o, Integer.toString(port));
+            }
+        }
+
+        // Split and validate path, query and fragment before doing any work on them
+        int pathEnd = authorityEnd;
+        while (pathEnd < n && in[pathEnd] != '?' && in[pathEnd] != '#') {
+            if (!isLegal(in, pathEnd, n, PATH_CHARS)) {
+                return null;
+            }
+            pathEnd += in[pathEnd] == '%' ? 3 : 1;
+        }
+        int queryStart = -1;
+        int queryEnd = pathEnd;
+        if (pathEnd < n && in[pathEnd] == '?') {
+            queryStart = pathEnd + 1;
+            queryEnd = queryStart;
+            while (queryEnd < n && in[queryEnd] != '#') {
+                if (!isLegal(in, queryEnd, n, URIC_CHARS)) {
+                    return null;
+                }
+                queryEnd += in[queryEnd] == '%' ? 3 : 1;
+            }
+        }
+        int fragmentStart = -1;
+        if (queryEnd < n && in[queryEnd] == '#') {
+            fragmentStart = queryEnd + 1;
+            for (int i = fragmentStart; i < n; i += in[i] == '%' ? 3 : 1) {
+                if (!isLegal(in, i, n, URIC_CHARS)) {
+                    return null;
+                }
+            }
+        }
+
+        o = appendPath(buffers, in, authorityEnd, pathEnd, o);
+        if (o == BAIL) {
+            return null;
+        }
+        if (queryStart >= 0 && queryEnd > queryStart) {
+            o = appendQuery(buffers, in, queryStart, queryEnd, o);
+            if (o == BAIL) {
+                return null;
+            }
+        }
+        if (fragmentStart >= 0) {
+            o = appendFragment(buffers, in, fragmentStart, n, o);
+            if (o == BAIL) {
+                return null;
+            }
+        }
+        return new String(out, 0, o);
+    }
+
+    private int appendPath(Buffers buffers, char[] in, int from, int to, int o) {
+        char[] path = buffers.decoded;
+        int length = decodeEscapes(in, from, to, path, 0);
+        if (length == 0 || (length == 1 && path[0] == '/')) {
+            return o;
+        }
+        // Drop one trailing slash; a path after an authority always starts with '/'
+        if (path[length - 1] == '/') {
+            length--;
+        }
+        if (decodeUrlEncoded) {
+            char[] decoded = buffers.components;
+            length = urlDecode(path, 0, length, decoded, 0);
+            if (length == BAIL) {
+                return BAIL;
+            }
+            path = decoded;
+        }
+        char[] out = buffers.output;
+        boolean previousSlash = false;
+        for (int i = 0; i < length; i++) {
+            char c = path[i];
+            if (c == '/') {
+                if (previousSlash) {
+                    continue;
+                }
+                previousSlash = true;
+            } else {
+                previousSlash = false;
+            }
+            out[o++] = c;
+        }
+        return o;
+    }
+
+    private int appendQuery(Buffers buffers, char[] in, int from, int to, int o) {
+        char[] query = buffers.decoded;
+        int length = decodeEscapes(in, from, to, query, 0);
+        // String.split drops trailing empty pieces
+        while (length > 0 && query[length - 1] == '&') {
+            length--;
+        }
+        if (length == 0) {
+            return o;
+        }
+
+        char[] components = buffers.components;
+        int c = 0;
+        int count = 0;
+        int start = 0;
+        while (true) {
+            int end = indexOf(query, '&', start, length);
+            if (end < 0) {
+                end = length;
+            }
+            int equals = indexOf(query, '=', start, end);
+            int keyStart = c;
+            c = urlDecode(query, start, equals < 0 ? end : equals, components, c);
+            if (c == BAIL) {
+                return BAIL;
+            }
+            int keyLength = c - keyStart;
+            int valueStart = c;
+            if (equals >= 0) {
+                c = urlDecode(query, equals + 1, end, components, c);
+                if (c == BAIL) {
+                    return BAIL;
+                }
+            }
+            int valueLength = c - valueStart;
+
+            if (!(removeTrackingParams && trackingParameters.matches(components, keyStart, keyStart + keyLength))) {
+                if (count == MAX_PARAMS) {
+                    return BAIL;
+                }
+                buffers.ensureParams(count + 1);
+                int[] params = buffers.params;
+                params[4 * count] = keyStart;
+                params[4 * count + 1] = keyLength;
+                params[4 * count + 2] = valueStart;
+                params[4 * count + 3] = valueLength;
+                buffers.order[count] = count;
+                count++;
+            }
+            if (end == length) {
+                break;
+            }
+            start = end + 1;
+        }
+        if (count == 0) {
+            return o;
+        }
+
+        sortParams(buffers, count);
+
+        char[] out = buffers.output;
+        int[] params = buffers.params;
+        int[] order = buffers.order;
+        out[o++] = '?';
+        for (int i = 0; i < count; i++) {
+            int p = 4 * order[i];
+            if (i > 0) {
+                out[o++] = '&';
+            }
+            o = encodeComponent(components, params[p], params[p] + params[p + 1], out, o);
+            out[o++] = '=';
+            o = encodeComponent(components, params[p + 2], params[p + 2] + params[p + 3], out, o);
+        }
+        return o;
+    }
+
+    // Stable insertion sort by key (TreeMap grouping), then by value when the strategy sorts values
+    private void sortParams(Buffers buffers, int count) {
+        char[] components = buffers.components;
+        int[] params = buffers.params;
+        int[] order = buffers.order;
+        for (int i = 1; i < count; i++) {
+            int current = order[i];
+            int j = i - 1;
+            while (j >= 0 && compareParams(components, params, order[j], current) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+
+    private int compareParams(char[] components, int[] params, int a, int b) {
+        int pa = 4 * a;
+        int pb = 4 * b;
+        int byKey = compare(components, params[pa], params[pa + 1], params[pb], params[pb + 1]);
+        if (byKey != 0 || !sortQueryParameters) {
+            return byKey;
+        }
+        return compare(components, params[pa + 2], params[pa + 3], params[pb + 2], params[pb + 3]);
+    }
+
+    private int appendFragment(Buffers buffers, char[] in, int from, int to, int o) {
+        char[] fragment = buffers.decoded;
+        int length = decodeEscapes(in, from, to, fragment, 0);
+        boolean keep = !removeFragments || (preserveHashbang && length > 0 && fragment[0] == '!');
+        if (!keep) {
+            return o;
+        }
+        // String.trim, then one leading '#'
+        int start = 0;
+        int end = length;
+        while (start < end && fragment[start] <= ' ') {
+            start++;
+        }
+        while (end > start && fragment[end - 1] <= ' ') {
+            end--;
+        }
+        if (start < end && fragment[start] == '#') {
+            start++;
+        }
+        if (decodeUrlEncoded) {
+            end = urlDecode(fragment, start, end, buffers.components, 0);
+            if (end == BAIL) {
+                return BAIL;
+            }
+            fragment = buffers.components;
+            start = 0;
+        }
+        if (end > start) {
+            char[] out = buffers.output;
+            out[o++] = '#';
+            o = encodeComponent(fragment, start, end, out, o);
+        }
+        return o;
+    }
+
+    // URI-level decoding; escapes were validated to be well-formed ASCII
+    private static int decodeEscapes(char[] src, int from, int to, char[] dst, int at) {
+        for (int i = from; i < to; i++) {
+            char c = src[i];
+            if (c == '%') {
+                c = (char) (hexValue(src[i + 1]) << 4 | hexValue(src[i + 2]));
+                i += 2;
+            }
+            dst[at++] = c;
+        }
+        return at;
+    }
+
+    /*
+     * URLDecoder semantics ('+' is a space). URLDecoder rejects malformed escapes for the whole
+     * string and accepts a few odd ones ("%+1"); both cases, like non-ASCII bytes, bail out.
+     */
+    private static int urlDecode(char[] src, int from, int to, char[] dst, int at) {
+        for (int i = from; i < to; i++) {
+            char c = src[i];
+            if (c == '+') {
+                c = ' ';
+            } else if (c == '%') {
+                if (i + 2 >= to) {
+                    return BAIL;
+                }
+                int high = hexValue(src[i + 1]);
+                int low = hexValue(src[i + 2]);
+                if (high < 0 || low < 0 || high >= 8) {
+                    return BAIL;
+                }
+                c = (char) (high << 4 | low);
+                i += 2;
+            }
+            dst[at++] = c;
+        }
+        return at;
+    }
+
+    // URLEncoder followed by the + -> %20, %7E -> ~ and * -> %2A replacements, for ASCII input
+    private static int encodeComponent(char[] src, int from, int to, char[] out, int o) {
+        for (int i = from; i < to; i++) {
+            char c = src[i];
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '-' || c == '_' || c == '~') {
+                out[o++] = c;
+            } else {
+                out[o++] = '%';
+                out[o++] = HEX_DIGITS[c >> 4];
+                out[o++] = HEX_DIGITS[c & 0xF];
+            }
+        }
+        return o;
+    }
+
+    private static boolean isLegal(char[] in, int i, int n, boolean[] legal) {
+        char c = in[i];
+        if (c == '%') {
+            return i + 2 < n && hexValue(in[i + 1]) >= 0 && hexValue(in[i + 1]) < 8 && hexValue(in[i + 2]) >= 0;
+        }
+        return c < 128 && legal[c];
+    }
+
+    // scheme = alpha *( alpha | digit | "+" | "-" | "." ), returns the index of ':' or -1
+    private static int scanScheme(char[] in, int n) {
+        if (n == 0 || !isAlpha(in[0])) {
+            return -1;
+        }
+        for (int i = 1; i < n; i++) {
+            char c = in[i];
+            if (c == ':') {
+                return i;
+            }
+            if (!isAlpha(c) && !isDigit(c) && c != '+' && c != '-' && c != '.') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // Dotted labels of letters, digits and inner hyphens, with an alphabetic top label
+    private static boolean isHostName(char[] in, int from, int to) {
+        int labelStart = from;
+        for (int i = from; i < to; i++) {
+            char c = in[i];
+            if (c == '.') {
+                if (i == labelStart || in[i - 1] == '-') {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else if (c == '-') {
+                if (i == labelStart) {
+                    return false;
+                }
+            } else if (!isAlpha(c) && !isDigit(c)) {
+                return false;
+            }
+        }
+        return labelStart < to && in[to - 1] != '-' && isAlpha(in[labelStart]);
+    }
+
+    private static boolean startsWithWww(char[] in, int from) {
+        return toLowerAscii(in[from]) == 'w' && toLowerAscii(in[from + 1]) == 'w'
+            && toLowerAscii(in[from + 2]) == 'w' && in[from + 3] == '.';
+    }
+
+    private static int compare(char[] chars, int a, int aLength, int b, int bLength) {
+        int limit = Math.min(aLength, bLength);
+        for (int i = 0; i < limit; i++) {
+            int diff = chars[a + i] - chars[b + i];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    private static boolean regionEquals(char[] chars, int from, int to, String expected) {
+        if (to - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (chars[from + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(char[] chars, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (chars[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int append(char[] out, int o, String s) {
+        s.getChars(0, s.length(), out, o);
+        return o + s.length();
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        return -1;
+    }
+
+    private static boolean isAlpha(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+
+    private static void mark(boolean[] table, String chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            table[chars.charAt(i)] = true;
+        }
+    }
+
+    /**
+     * Per-thread scratch space, grown on demand and reused across calls.
+     */
+    private static final class Buffers {
+
+        char[] input = new char[0];
+        char[] decoded = new char[0];
+        char[] components = new char[0];
+        char[] output = new char[0];
+        int[] params = new int[4 * 32];
+        int[] order = new int[32];
+
+        void ensureCapacity(int length) {
+            if (input.length < length) {
+                int capacity = Math.max(length, 256);
+                input = new char[capacity];
+                decoded = new char[capacity];
+                components = new char[capacity];
+                // Every input char becomes at most three output chars, plus "https://" and '=' per parameter
+                output = new char[4 * capacity + 16];
+            }
+        }
+
+        void ensureParams(int count) {
+            if (order.length < count) {
+                order = Arrays.copyOf(order, Math.max(count, 2 * order.length));
+                params = Arrays.copyOf(params, 4 * order.length);
+            }
+        }
+    }
+}
@@ -198,6 +198,24 @@ public enum NormalizationStrategy {
         public boolean forceHttps() { return false; }
     };
 
+    // Compiled once per constant, see StrategyDescriptor
+    private static final StrategyDescriptor[] DESCRIPTORS;
+    
+    static {
+        NormalizationStrategy[] strategies = values();
+        DESCRIPTORS = new StrategyDescriptor[strategies.length];
+        for (NormalizationStrategy strategy : strategies) {
+            DESCRIPTORS[strategy.ordinal()] = StrategyDescriptor.compile(strategy);
+        }
+    }
+    
+    /**
+     * Immutable flags + lookup tables for this strategy, built at class initialization
+     */
+    public StrategyDescriptor descriptor() {
+        return DESCRIPTORS[ordinal()];
+    }
+
     // Core normalization behaviors
     public abstract boolean removeFragments();
     public abstract boolean removeTrackingParams();
@@ -217,7 +235,8 @@ public enum NormalizationStrategy {
     public boolean validateHost() { return false; }
     
     /**
-     * Gets the set of tracking parameters to remove for this strategy
+     * Gets the tracking parameter patterns to remove for this strategy.
+     * Entries ending in '*' are prefixes (utm_* covers utm_source, utm_id, ...)
      */
     public Set<String> getTrackingParameters() {
         if (!removeTrackingParams()) {
@@ -225,7 +244,7 @@ public enum NormalizationStrategy {
         }
         
         return Set.of(
-            "utm_source", "utm_medium", "utm_campaign", "utm_term", "utm_content",
+            "utm_*",
             "fbclid", "gclid", "msclkid", "yclid", "igshid",
             "twclid", "li_fat_id", "mc_cid", "mc_eid",
             "_hsenc", "_hsmi", "hmb_campaign", "hmb_medium", "hmb_source"
@@ -0,0 +1,41 @@
+package com.systemdesign.urlshortener.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Reusable scratch objects (digests, char buffers) that stay bounded under virtual threads.
+ *
+ * Platform threads are few and long-lived, so each keeps its own instance in a ThreadLocal.
+ * Virtual threads are created per request: a ThreadLocal would build one instance per request
+ * and drop it with the thread. They borrow from a shared queue instead, which keeps at most
+ * capacity idle instances; the work using them is CPU-bound and never blocks, so about as many
+ * are in use at once as there are carrier threads.
+ */
+final class ScratchPool<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> perThread;
+    private final ArrayBlockingQueue<T> idle;
+
+    ScratchPool(Supplier<T> factory) {
+        this.factory = factory;
+        this.perThread = ThreadLocal.withInitial(factory);
+        this.idle = new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    T acquire() {
+        if (!Thread.currentThread().isVirtual()) {
+            return perThread.get();
+        }
+        T scratch = idle.poll();
+        return scratch != null ? scratch : factory.get();
+    }
+
+    // Hands back what acquire() returned on this thread; dropped when the pool is already full
+    void release(T scratch) {
+        if (Thread.currentThread().isVirtual()) {
+            idle.offer(scratch);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.systemdesign.urlshortener.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+import com.systemdesign.urlshortener.utils.NormalizationStrategy.NormalizationFeature;
+
+/**
+ * A {@link NormalizationStrategy} compiled once into plain data: one bit per
+ * {@link NormalizationFeature}, the allowed schemes, and a {@link TrackingParameterMatcher}.
+ * The normalizers read this instead of calling back into the enum for every URL and parameter.
+ */
+public final class StrategyDescriptor {
+
+    private final NormalizationStrategy strategy;
+    private final int flags;
+    private final Set<String> allowedSchemes;
+    private final char[][] allowedSchemeChars;
+    private final TrackingParameterMatcher trackingParameters;
+
+    private StrategyDescriptor(NormalizationStrategy strategy, int flags, Set<String> allowedSchemes,
+            TrackingParameterMatcher trackingParameters) {
+        this.strategy = strategy;
+        this.flags = flags;
+        this.allowedSchemes = allowedSchemes;
+        this.allowedSchemeChars = allowedSchemes != null
+            ? allowedSchemes.stream().map(String::toCharArray).toArray(char[][]::new)
+            : null;
+        this.trackingParameters = trackingParameters;
+    }
+
+    static StrategyDescriptor compile(NormalizationStrategy strategy) {
+        int flags = 0;
+        for (NormalizationFeature feature : NormalizationFeature.values()) {
+            if (strategy.includes(feature)) {
+                flags |= bit(feature);
+            }
+        }
+        Set<String> allowedSchemes = strategy.getAllowedSchemes() != null ? Set.copyOf(strategy.getAllowedSchemes()) : null;
+        TrackingParameterMatcher trackingParameters = strategy.removeTrackingParams()
+            ? TrackingParameterMatcher.of(strategy.getTrackingParameters())
+            : TrackingParameterMatcher.NONE;
+        return new StrategyDescriptor(strategy, flags, allowedSchemes, trackingParameters);
+    }
+
+    /**
+     * Returns a descriptor that additionally strips the given tracking parameter patterns
+     * (exact names or {@code prefix*}). Has no effect on strategies that keep tracking parameters.
+     */
+    public StrategyDescriptor withExtraTrackingParameters(Collection<String> patterns) {
+        if (patterns.isEmpty() || !has(NormalizationFeature.TRACKING_PARAM_REMOVAL)) {
+            return this;
+        }
+        return new StrategyDescriptor(strategy, flags, allowedSchemes, trackingParameters.with(patterns));
+    }
+
+    public NormalizationStrategy strategy() {
+        return strategy;
+    }
+
+    public boolean has(NormalizationFeature feature) {
+        return (flags & bit(feature)) != 0;
+    }
+
+    public int flags() {
+        return flags;
+    }
+
+    public TrackingParameterMatcher trackingParameters() {
+        return trackingParameters;
+    }
+
+    // null means all schemes are allowed
+    public Set<String> allowedSchemes() {
+        return allowedSchemes;
+    }
+
+    public boolean isSchemeAllowed(String lowerCaseScheme) {
+        return allowedSchemes == null || allowedSchemes.contains(lowerCaseScheme);
+    }
+
+    boolean isSchemeAllowed(char[] chars, int from, int to) {
+        if (allowedSchemeChars == null) {
+            return true;
+        }
+        int length = to - from;
+        for (char[] scheme : allowedSchemeChars) {
+            if (scheme.length == length && Arrays.equals(scheme, 0, length, chars, from, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static int bit(NormalizationFeature feature) {
+        return 1 << feature.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        return "StrategyDescriptor[" + strategy + ", flags=" + Integer.toBinaryString(flags)
+            + ", allowedSchemes=" + allowedSchemes + ", trackingParameters=" + trackingParameters.patterns() + "]";
+    }
+}
@@ -0,0 +1,181 @@
+package com.systemdesign.urlshortener.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable lookup of tracking query parameter names.
+ *
+ * Patterns are either exact names ({@code fbclid}) or prefixes ending in '*' ({@code utm_*}).
+ * A key is matched in one pass over its chars: the String-compatible hash is rolled forward and
+ * probed in the prefix table at each configured prefix length, then in the exact table at the
+ * end. Lookups never allocate and cost O(key length) regardless of how many patterns exist.
+ */
+public final class TrackingParameterMatcher {
+
+    public static final TrackingParameterMatcher NONE = of(Set.of());
+
+    private final Set<String> patterns;
+    private final HashTable exact;
+    private final HashTable prefixes;
+    private final int[] prefixLengths;
+
+    private TrackingParameterMatcher(Set<String> patterns, HashTable exact, HashTable prefixes, int[] prefixLengths) {
+        this.patterns = patterns;
+        this.exact = exact;
+        this.prefixes = prefixes;
+        this.prefixLengths = prefixLengths;
+    }
+
+    public static TrackingParameterMatcher of(Collection<String> patterns) {
+        Set<String> all = new LinkedHashSet<>();
+        Set<String> exactNames = new LinkedHashSet<>();
+        Set<String> prefixNames = new LinkedHashSet<>();
+        TreeSet<Integer> lengths = new TreeSet<>();
+        for (String pattern : patterns) {
+            String trimmed = pattern.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.endsWith("*")) {
+                String prefix = trimmed.substring(0, trimmed.length() - 1);
+                if (prefix.isEmpty() || prefix.indexOf('*') >= 0) {
+                    throw new IllegalArgumentException("Invalid tracking parameter pattern: " + pattern);
+                }
+                prefixNames.add(prefix);
+                lengths.add(prefix.length());
+            } else if (trimmed.indexOf('*') >= 0) {
+                throw new IllegalArgumentException("Invalid tracking parameter pattern: " + pattern);
+            } else {
+                exactNames.add(trimmed);
+            }
+            all.add(trimmed);
+        }
+        return new TrackingParameterMatcher(Set.copyOf(all), new HashTable(exactNames), new HashTable(prefixNames),
+            lengths.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Returns a matcher that also recognises the given patterns.
+     */
+    public TrackingParameterMatcher with(Collection<String> morePatterns) {
+        if (morePatterns.isEmpty()) {
+            return this;
+        }
+        Set<String> combined = new LinkedHashSet<>(patterns);
+        combined.addAll(morePatterns);
+        return of(combined);
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    public Set<String> patterns() {
+        return patterns;
+    }
+
+    public boolean matches(String name) {
+        int length = name.length();
+        int hash = 0;
+        int next = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + name.charAt(i);
+            if (next < prefixLengths.length && prefixLengths[next] == i + 1) {
+                if (prefixes.contains(hash, name, i + 1)) {
+                    return true;
+                }
+                next++;
+            }
+        }
+        return exact.contains(hash, name, length);
+    }
+
+    boolean matches(char[] chars, int from, int to) {
+        int hash = 0;
+        int next = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + chars[i];
+            if (next < prefixLengths.length && prefixLengths[next] == i + 1 - from) {
+                if (prefixes.contains(hash, chars, from, i + 1 - from)) {
+                    return true;
+                }
+                next++;
+            }
+        }
+        return exact.contains(hash, chars, from, to - from);
+    }
+
+    @Override
+    public String toString() {
+        return "TrackingParameterMatcher" + patterns;
+    }
+
+    /**
+     * Open-addressing table of names keyed by String.hashCode, probed without building Strings.
+     */
+    private static final class HashTable {
+
+        private final char[][] names;
+        private final int[] hashes;
+        private final int mask;
+
+        HashTable(Set<String> entries) {
+            int capacity = Integer.highestOneBit(Math.max(4, entries.size() * 2) - 1) << 1;
+            this.names = new char[capacity][];
+            this.hashes = new int[capacity];
+            this.mask = capacity - 1;
+            for (String entry : entries) {
+                int hash = entry.hashCode();
+                int slot = spread(hash) & mask;
+                while (names[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                names[slot] = entry.toCharArray();
+                hashes[slot] = hash;
+            }
+        }
+
+        boolean contains(int hash, char[] chars, int from, int length) {
+            for (int slot = spread(hash) & mask; names[slot] != null; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && names[slot].length == length && regionMatches(names[slot], chars, from)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean contains(int hash, String name, int length) {
+            for (int slot = spread(hash) & mask; names[slot] != null; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && names[slot].length == length && regionMatches(names[slot], name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean regionMatches(char[] name, char[] chars, int from) {
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != chars[from + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean regionMatches(char[] name, String value) {
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -6,15 +6,20 @@ import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import com.systemdesign.urlshortener.utils.NormalizationStrategy.NormalizationFeature;
+
 public class UrlNormalizer {
     
     private final NormalizationStrategy strategy;
+    private final StrategyDescriptor descriptor;
+    private final FastUrlNormalizer fastPath;
     
     // Default constructor uses AGGRESSIVE strategy (recommended for URL shorteners)
     public UrlNormalizer() {
@@ -22,7 +27,17 @@ public class UrlNormalizer {
     }
     
     public UrlNormalizer(NormalizationStrategy strategy) {
+        this(strategy, List.of());
+    }
+    
+    /**
+     * @param extraTrackingParameters additional tracking parameter names or {@code prefix*}
+     *        patterns to strip, on top of the strategy's own (ignored if it keeps tracking params)
+     */
+    public UrlNormalizer(NormalizationStrategy strategy, Collection<String> extraTrackingParameters) {
         this.strategy = strategy;
+        this.descriptor = strategy.descriptor().withExtraTrackingParameters(extraTrackingParameters);
+        this.fastPath = new FastUrlNormalizer(descriptor);
     }
     
     public String normalize(String url) {
@@ -30,17 +45,31 @@ public class UrlNormalizer {
             throw new IllegalArgumentException("URL cannot be null or empty");
         }
         
+        // Common URLs take the char-array fast path; anything unusual goes through java.net.URI
+        String normalized = fastPath.normalize(url);
+        return normalized != null ? normalized : normalizeWithUri(url);
+    }
+    
+    /**
+     * Reference implementation on top of java.net.URI. The fast path produces exactly the
+     * same output and falls back to this for inputs it does not handle.
+     */
+    public String normalizeWithUri(String url) {
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("URL cannot be null or empty");
+        }
+        
         try {
             String urlWithScheme = ensureScheme(url);
             URI uri = new URI(urlWithScheme);
             
             // Apply security checks if strategy requires
-            if (strategy.removeUserInfo() && uri.getRawUserInfo() != null) {
+            if (descriptor.has(NormalizationFeature.USERINFO_REMOVAL) && uri.getRawUserInfo() != null) {
                 throw new IllegalArgumentException("URL contains user information which is not allowed");
             }
             
-            if (strategy.getAllowedSchemes() != null && 
-                !strategy.getAllowedSchemes().contains(uri.getScheme().toLowerCase())) {
+            if (descriptor.allowedSchemes() != null && 
+                !descriptor.isSchemeAllowed(uri.getScheme().toLowerCase())) {
                 throw new IllegalArgumentException("URL scheme not allowed: " + uri.getScheme());
             }
             
@@ -80,7 +109,7 @@ public class UrlNormalizer {
         String normalized = scheme != null ? scheme.toLowerCase() : "https";
         
         // Force HTTPS if strategy requires
-        if (strategy.forceHttps() && "http".equals(normalized)) {
+        if (descriptor.has(NormalizationFeature.HTTPS_FORCING) && "http".equals(normalized)) {
             return "https";
         }
         
@@ -94,7 +123,7 @@ public class UrlNormalizer {
         
         String normalized = host.toLowerCase();
         
-        if (strategy.removeWwwSubdomain() && normalized.startsWith("www.")) {
+        if (descriptor.has(NormalizationFeature.WWW_REMOVAL) && normalized.startsWith("www.")) {
             normalized = normalized.substring(4);
         }
         
@@ -129,7 +158,7 @@ public class UrlNormalizer {
         }
         
         // Decode URL-encoded characters for consistency
-        if (strategy.decodeUrlEncoded()) {
+        if (descriptor.has(NormalizationFeature.URL_DECODING)) {
             normalized = decodeUrlEncoded(normalized);
         }
         
@@ -154,7 +183,7 @@ public class UrlNormalizer {
             String value = keyValue.length > 1 ? decodeUrlEncoded(keyValue[1]) : "";
             
             // Skip tracking parameters if strategy requires
-            if (strategy.removeTrackingParams() && strategy.getTrackingParameters().contains(key)) {
+            if (descriptor.trackingParameters().matches(key)) {
                 continue;
             }
             
@@ -167,7 +196,7 @@ public class UrlNormalizer {
             return null;
         }
         
-        if (strategy.sortQueryParameters()) {
+        if (descriptor.has(NormalizationFeature.QUERY_SORTING)) {
             return buildSortedQueryString(params);
         } else {
             return buildQueryString(params);
@@ -180,9 +209,7 @@ public class UrlNormalizer {
                     String key = entry.getKey();
                     List<String> values = entry.getValue();
                     // Sort values for consistency
-                    if (strategy.sortQueryParameters()) {
-                        Collections.sort(values);
-                    }
+                    Collections.sort(values);
                     return values.stream()
                             .map(value -> encodeUrlComponent(key) + "=" + encodeUrlComponent(value));
                 })
@@ -204,12 +231,12 @@ public class UrlNormalizer {
     }
     
     private String normalizeFragment(String fragment) {
-        if (!strategy.removeFragments()) {
+        if (!descriptor.has(NormalizationFeature.FRAGMENT_REMOVAL)) {
             return normalizeFragmentContent(fragment);
         }
         
         // For SEO strategy, preserve hashbang fragments
-        if (strategy.preserveHashbangFragments() && fragment != null && fragment.startsWith("!")) {
+        if (descriptor.has(NormalizationFeature.HASHBANG_PRESERVATION) && fragment != null && fragment.startsWith("!")) {
             return normalizeFragmentContent(fragment);
         }
         
@@ -224,7 +251,7 @@ public class UrlNormalizer {
             normalized = normalized.substring(1);
         }
         
-        if (strategy.decodeUrlEncoded()) {
+        if (descriptor.has(NormalizationFeature.URL_DECODING)) {
             normalized = decodeUrlEncoded(normalized);
         }
         
@@ -299,4 +326,8 @@ public class UrlNormalizer {
     public NormalizationStrategy getStrategy() {
         return strategy;
     }
+    
+    public StrategyDescriptor getDescriptor() {
+        return descriptor;
+    }
 }
\ No newline at end of file
@@ -1,19 +1,35 @@
 package com.systemdesign.urlshortener.utils;
 
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
 public class UrlUtils {
 
-    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    public static final int SHORT_CODE_LENGTH = 6;
 
-    private static final int SHORT_CODE_LENGTH = 6;
+    // SecureRandom is thread-safe; one shared instance instead of a new one (and a lock) per call
+    private static final SecureRandom RANDOM = new SecureRandom();
     
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // MessageDigest is not thread-safe; reused per platform thread or pooled for virtual threads
+    // instead of getInstance() per call
+    private static final ScratchPool<UrlHasher> HASHERS = new ScratchPool<>(UrlHasher::new);
+    
+    /**
+     * SHA-256 of the URL's UTF-8 bytes as 64 lowercase hex chars.
+     */
     public static String hashUrl(String url)
     {
-        return generateSHA256Hash(url);
+        UrlHasher hasher = HASHERS.acquire();
+        try {
+            return bytesToHex(hasher.sha256(url));
+        } finally {
+            HASHERS.release(hasher);
+        }
     }
 
     public static String generateFragmentHash(String fragment) {
@@ -26,38 +42,98 @@ public class UrlUtils {
     }
 }
 
-    private static String generateSHA256Hash(String input) {
-    try {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-        return bytesToHex(hash);
-    } catch (NoSuchAlgorithmException e) {
-        throw new RuntimeException(e);
-    }
-}
-
-    private static String bytesToHex(byte[] bytes) {
+    public static String bytesToHex(byte[] bytes) {
         final char[] hexChars = new char[bytes.length * 2];
         for (int i = 0; i < bytes.length; i++) {
             int v = bytes[i] & 0xFF;
-            hexChars[i * 2] = Character.forDigit(v >>> 4, 16);
-            hexChars[i * 2 + 1] = Character.forDigit(v & 0xF, 16);
+            hexChars[i * 2] = HEX_DIGITS[v >>> 4];
+            hexChars[i * 2 + 1] = HEX_DIGITS[v & 0xF];
         }
         return new String(hexChars);
     }
 
+    public static byte[] hexToBytes(String hex) {
+        if ((hex.length() & 1) != 0) {
+            throw new IllegalArgumentException("Odd number of hex digits: " + hex);
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Invalid hex string: " + hex);
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
     
-    public static synchronized String generateShortCode() {
-        SecureRandom random = new SecureRandom();
-        StringBuilder shortCode = new StringBuilder(SHORT_CODE_LENGTH);
+    public static String generateShortCode() {
+        // 64 random bits cover 6 base62 digits (~36 bits) with negligible modulo bias
+        return Base62.encodeUnsigned(RANDOM.nextLong(), SHORT_CODE_LENGTH);
+    }
+
+    /**
+     * Reusable SHA-256 state. Chars are UTF-8 encoded straight into a small reusable chunk
+     * that is fed to the digest, instead of materialising url.getBytes() for every URL.
+     */
+    private static final class UrlHasher {
 
-        for (int i = 0; i < SHORT_CODE_LENGTH; i++) {
-            int randomIndex = random.nextInt(ALPHABET.length());
-            shortCode.append(ALPHABET.charAt(randomIndex));
+        private final MessageDigest digest;
+        private final byte[] chunk = new byte[1024];
+        private final byte[] hash = new byte[32];
+
+        UrlHasher() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
         }
 
-        return shortCode.toString();
+        // Returns the hasher's own buffer; callers copy it before releasing the hasher
+        byte[] sha256(CharSequence input) {
+            digest.reset();
+            int length = input.length();
+            int n = 0;
+            for (int i = 0; i < length; i++) {
+                if (n > chunk.length - 4) {
+                    digest.update(chunk, 0, n);
+                    n = 0;
+                }
+                char c = input.charAt(i);
+                if (c < 0x80) {
+                    chunk[n++] = (byte) c;
+                } else if (c < 0x800) {
+                    chunk[n++] = (byte) (0xC0 | c >> 6);
+                    chunk[n++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    int codePoint = Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))
+                        ? Character.toCodePoint(c, input.charAt(++i))
+                        : -1;
+                    if (codePoint < 0) {
+                        // Unpaired surrogate: String.getBytes(UTF_8) writes '?'
+                        chunk[n++] = '?';
+                    } else {
+                        chunk[n++] = (byte) (0xF0 | codePoint >> 18);
+                        chunk[n++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                        chunk[n++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                        chunk[n++] = (byte) (0x80 | codePoint & 0x3F);
+                    }
+                } else {
+                    chunk[n++] = (byte) (0xE0 | c >> 12);
+                    chunk[n++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    chunk[n++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            digest.update(chunk, 0, n);
+            try {
+                digest.digest(hash, 0, hash.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return hash;
+        }
     }
-
-    
 }
@@ -0,0 +1,156 @@
+package com.systemdesign.urlshortener.warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.systemdesign.urlshortener.cache.UrlResolveCache;
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+import com.systemdesign.urlshortener.repository.ClickCountRepository;
+import com.systemdesign.urlshortener.service.UrlChangeService;
+import com.systemdesign.urlshortener.service.UrlLookupService;
+import com.systemdesign.urlshortener.utils.UrlNormalizer;
+
+/**
+ * Startup warm-up, so a fresh instance does not send its first minutes of traffic to MySQL with
+ * cold caches and an unoptimised JIT. Runs as an ApplicationRunner, which completes before Spring
+ * Boot reports the instance ready (/actuator/health/readiness).
+ *
+ * 1. Reads the app.warmup.top-codes most clicked codes of the last app.warmup.days days from a replica.
+ * 2. Resolves the first few through the full resolve path (filter, snapshot, single-row query),
+ *    then bulk-loads the rest straight into the resolve cache.
+ * 3. Runs the resolve path and UrlNormalizer app.warmup.iterations times so the JIT compiles them.
+ *
+ * Everything goes through peekShortCode, which counts no clicks. The whole warm-up stops at
+ * app.warmup.max-duration, which also bounds the ranking query as its transaction timeout; a
+ * database error or timeout ends it early without failing the startup.
+ */
+@Component
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheWarmer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    // Codes resolved one by one through the full path; the rest are loaded in bulk
+    private static final int FULL_PATH_CODES = 200;
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ClickCountRepository clickCountRepository;
+    private final UrlLookupService urlLookupService;
+    private final UrlChangeService urlChangeService;
+    private final UrlResolveCache resolveCache;
+    private final UrlNormalizer normalizer;
+    private final PlatformTransactionManager transactionManager;
+    private final int topCodes;
+    private final int days;
+    private final int iterations;
+    private final Duration maxDuration;
+
+    public CacheWarmer(
+            ClickCountRepository clickCountRepository,
+            UrlLookupService urlLookupService,
+            UrlChangeService urlChangeService,
+            UrlResolveCache resolveCache,
+            UrlNormalizer normalizer,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.warmup.top-codes:10000}") int topCodes,
+            @Value("${app.warmup.days:2}") int days,
+            @Value("${app.warmup.iterations:20000}") int iterations,
+            @Value("${app.warmup.max-duration:PT30S}") Duration maxDuration) {
+        this.clickCountRepository = clickCountRepository;
+        this.urlLookupService = urlLookupService;
+        this.urlChangeService = urlChangeService;
+        this.resolveCache = resolveCache;
+        this.normalizer = normalizer;
+        this.transactionManager = transactionManager;
+        this.topCodes = topCodes;
+        this.days = Math.max(1, days);
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+
+        List<String> shortCodes = new ArrayList<>();
+        List<String> longUrls = new ArrayList<>();
+        try {
+            LocalDate since = LocalDate.now(ZoneOffset.UTC).minusDays(days - 1L);
+            List<String> hottest = readOnlyTransaction(deadline).execute(status -> clickCountRepository.findMostClicked(since, topCodes));
+            preload(hottest, shortCodes, longUrls, deadline);
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Warm-up could not preload hot short codes, continuing with {} loaded: {}", shortCodes.size(), e.getMessage());
+        }
+
+        int ran = 0;
+        while (ran < iterations && System.nanoTime() < deadline) {
+            if (!shortCodes.isEmpty()) {
+                // Cache hits from here on: compiles the path most resolves take
+                urlChangeService.peekShortCode(shortCodes.get(ran % shortCodes.size()));
+            }
+            String url = longUrls.isEmpty() || ran % 2 == 0 ? syntheticUrl(ran) : longUrls.get(ran % longUrls.size());
+            try {
+                normalizer.normalize(url);
+            } catch (IllegalArgumentException e) {
+                // Stored URLs were valid when they were shortened; a rejected one still exercises the code
+            }
+            ran++;
+        }
+
+        logger.info("Warm-up cached {} hot short codes and ran {} resolve/normalize iterations in {} ms",
+            shortCodes.size(), ran, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void preload(List<String> hottest, List<String> shortCodes, List<String> longUrls, long deadline) {
+        int fullPath = Math.min(FULL_PATH_CODES, hottest.size());
+        for (String shortCode : hottest.subList(0, fullPath)) {
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+            ResolvedUrl resolved = urlChangeService.peekShortCode(shortCode);
+            if (resolved.isFound()) {
+                shortCodes.add(shortCode);
+                longUrls.add(resolved.longUrl());
+            }
+        }
+
+        for (int from = fullPath; from < hottest.size() && System.nanoTime() < deadline; from += CHUNK_SIZE) {
+            Map<String, ResolvedUrl> found = urlLookupService.findLongUrls(hottest.subList(from, Math.min(hottest.size(), from + CHUNK_SIZE)));
+            found.forEach((shortCode, resolved) -> {
+                resolveCache.put(shortCode, resolved);
+                shortCodes.add(shortCode);
+                longUrls.add(resolved.longUrl());
+            });
+        }
+    }
+
+    // The transaction timeout becomes the JDBC query timeout of every statement run in it
+    private TransactionTemplate readOnlyTransaction(long deadline) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setTimeout((int) Math.max(1L, (deadline - System.nanoTime() + 999_999_999L) / 1_000_000_000L));
+        return transaction;
+    }
+
+    // Tracking parameters, unsorted query and a fragment, so normalisation does real work
+    private static String syntheticUrl(int i) {
+        return "https://Warmup.Example.com:443/articles/" + i + "/?utm_source=warmup&b=" + (i % 7) + "&a=" + i + "#section-" + (i % 3);
+    }
+}
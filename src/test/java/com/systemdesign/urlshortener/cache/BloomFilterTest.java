@@ -0,0 +1,81 @@
+package com.systemdesign.urlshortener.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    void neverReportsAnAddedCodeAsMissing() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add(code(i));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain(code(i)), code(i));
+        }
+    }
+
+    @Test
+    void staysNearTheConfiguredFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add(code(i));
+        }
+        int falsePositives = 0;
+        for (int i = 100_000; i < 300_000; i++) {
+            if (filter.mightContain(code(i))) {
+                falsePositives++;
+            }
+        }
+        double rate = falsePositives / 200_000.0;
+        assertTrue(rate < 0.015, "false positive rate " + rate);
+        // Optimally sized and full: about half the bits set
+        assertEquals(0.5, filter.fillRatio(), 0.02);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.003);
+    }
+
+    @Test
+    void concurrentAddsLoseNoBits() {
+        BloomFilter concurrent = BloomFilter.create(50_000, 0.001);
+        BloomFilter sequential = BloomFilter.create(50_000, 0.001);
+        IntStream.range(0, 50_000).parallel().forEach(i -> concurrent.add(code(i)));
+        IntStream.range(0, 50_000).forEach(i -> sequential.add(code(i)));
+        assertEquals(sequential.fillRatio(), concurrent.fillRatio());
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(concurrent.mightContain(code(i)));
+        }
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+        assertFalse(filter.mightContain("abc123"));
+        assertEquals(0.0, filter.fillRatio());
+    }
+
+    @Test
+    void rejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(1_000, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(1_000, 1));
+    }
+
+    // Base62 codes like the block generator's, for sequential ids
+    private static String code(long id) {
+        StringBuilder code = new StringBuilder();
+        do {
+            code.append(ALPHABET.charAt((int) (id % 62)));
+            id /= 62;
+        } while (id > 0);
+        return code.reverse().toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.systemdesign.urlshortener.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.systemdesign.urlshortener.model.ResolvedUrl;
+
+class MappingSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsMappings() throws IOException {
+        Map<String, String> mappings = randomMappings(20_000, new Random(42L));
+        Path file = write(directory.resolve("mappings.snap"), mappings, MappedSegments.DEFAULT_SEGMENT_SIZE);
+
+        MappingSnapshot snapshot = MappingSnapshot.open(file);
+        assertEquals(mappings.size(), snapshot.entryCount());
+        assertEquals(99L, snapshot.maxId());
+        mappings.forEach((code, url) -> assertEquals(new ResolvedUrl(url, expiresAt(code)), snapshot.find(code), code));
+        assertNull(snapshot.find("zzzzzzzzzz"));
+        assertNull(snapshot.find("é"));
+        assertNull(snapshot.find(""));
+    }
+
+    @Test
+    void readsRecordsAndSlotsAcrossSegments() throws IOException {
+        Map<String, String> mappings = randomMappings(3_000, new Random(7L));
+        mappings.put("long", "https://example.com/" + "x".repeat(5_000));
+        // Tiny segments force records and lengths to straddle mapping boundaries
+        Path file = write(directory.resolve("segmented.snap"), mappings, 64);
+
+        MappingSnapshot snapshot = MappingSnapshot.open(file, 64);
+        mappings.forEach((code, url) -> assertEquals(new ResolvedUrl(url, expiresAt(code)), snapshot.find(code), code));
+    }
+
+    @Test
+    void emptySnapshotFindsNothing() throws IOException {
+        Path file = write(directory.resolve("empty.snap"), Map.of(), MappedSegments.DEFAULT_SEGMENT_SIZE);
+        assertNull(MappingSnapshot.open(file).find("abc"));
+    }
+
+    @Test
+    void abandonedWriterLeavesTargetUntouched() throws IOException {
+        Path target = directory.resolve("abandoned.snap");
+        try (MappingSnapshotWriter writer = new MappingSnapshotWriter(target, 10, 1)) {
+            writer.add("abc", "https://example.com/", 0L);
+        }
+        assertFalse(Files.exists(target));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = Files.writeString(directory.resolve("other.snap"), "not a snapshot at all, just some text padding it out to 64 bytes");
+        assertThrows(IOException.class, () -> MappingSnapshot.open(file));
+    }
+
+    private static Path write(Path target, Map<String, String> mappings, int segmentSize) throws IOException {
+        try (MappingSnapshotWriter writer = new MappingSnapshotWriter(target, mappings.size(), 99L, segmentSize)) {
+            for (Map.Entry<String, String> mapping : mappings.entrySet()) {
+                writer.add(mapping.getKey(), mapping.getValue(), expiresAt(mapping.getKey()));
+            }
+            writer.commit();
+        }
+        return target;
+    }
+
+    // Every third code expires, at a time that differs per code
+    private static long expiresAt(String shortCode) {
+        return shortCode.hashCode() % 3 == 0 ? 1_700_000_000_000L + shortCode.hashCode() : 0L;
+    }
+
+    private static Map<String, String> randomMappings(int count, Random random) {
+        String alphabet = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+        Map<String, String> mappings = new LinkedHashMap<>();
+        while (mappings.size() < count) {
+            StringBuilder code = new StringBuilder();
+            int length = 1 + random.nextInt(10);
+            for (int i = 0; i < length; i++) {
+                code.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            mappings.put(code.toString(), "https://example.com/" + code + "/ünïcode?p=" + random.nextInt());
+        }
+        return mappings;
+    }
+}